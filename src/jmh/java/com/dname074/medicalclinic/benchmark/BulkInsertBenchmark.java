@@ -0,0 +1,188 @@
+package com.dname074.medicalclinic.benchmark;
+
+import com.dname074.medicalclinic.MedicalclinicApplication;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.PooledSequenceGenerator;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.User;
+import com.dname074.medicalclinic.model.Visit;
+import com.dname074.medicalclinic.repository.DoctorRepository;
+import com.dname074.medicalclinic.repository.PatientRepository;
+import com.dname074.medicalclinic.repository.VisitRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+// warianty *WithIdentity odtwarzają to, co Hibernate robi dla GenerationType.IDENTITY: osobny insert na wiersz
+// i odczyt wygenerowanego klucza, bez batchowania JDBC - porównanie z sekwencją pooled przy tej samej liczbie wierszy
+public class BulkInsertBenchmark {
+    private static final LocalDateTime FIRST_VISIT = LocalDateTime.of(2030, 1, 1, 8, 0);
+    private static final LocalDate BIRTHDAY = LocalDate.of(1990, 1, 1);
+
+    @Param({"1", "50"})
+    int batchSize;
+    @Param({"1", "50"})
+    int allocationSize;
+    @Param({"1000"})
+    int visits;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transactionTemplate;
+    VisitRepository visitRepository;
+    DoctorRepository doctorRepository;
+    PatientRepository patientRepository;
+    JdbcTemplate jdbcTemplate;
+    Long doctorId;
+    long slot;
+    long patient;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(MedicalclinicApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE + "=" + allocationSize)
+                .run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        visitRepository = context.getBean(VisitRepository.class);
+        doctorRepository = context.getBean(DoctorRepository.class);
+        patientRepository = context.getBean(PatientRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("create table visits_identity (id bigint generated by default as identity primary key, " +
+                "start_date timestamp, end_date timestamp, doctor_id bigint, version bigint)");
+        jdbcTemplate.execute("create table users_identity (id bigint generated by default as identity primary key, " +
+                "first_name varchar(255), last_name varchar(255))");
+        jdbcTemplate.execute("create table patients_identity (id bigint generated by default as identity primary key, " +
+                "email varchar(255), password varchar(255), id_card_number varchar(255), phone_number varchar(255), " +
+                "birthday date, user_id bigint)");
+        Doctor newDoctor = new Doctor();
+        newDoctor.setEmail("benchmark@onet.pl");
+        newDoctor.setPassword("password123");
+        newDoctor.setSpecialization(Specialization.CARDIOLOGIST);
+        newDoctor.setUser(new User(null, "Jan", "Benchmark"));
+        doctorId = doctorRepository.save(newDoctor).getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearVisits() {
+        visitRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        jdbcTemplate.update("delete from users where id not in (select user_id from doctors)");
+        jdbcTemplate.update("delete from visits_identity");
+        jdbcTemplate.update("delete from patients_identity");
+        jdbcTemplate.update("delete from users_identity");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Visit> saveAllVisits() {
+        return transactionTemplate.execute(status -> {
+            Doctor doctor = doctorRepository.getReferenceById(doctorId);
+            List<Visit> newVisits = new ArrayList<>(visits);
+            for (int i = 0; i < visits; i++) {
+                LocalDateTime startDate = FIRST_VISIT.plusMinutes(15 * slot++);
+                Visit visit = new Visit();
+                visit.setStartDate(startDate);
+                visit.setEndDate(startDate.plusMinutes(15));
+                visit.setDoctor(doctor);
+                newVisits.add(visit);
+            }
+            return visitRepository.saveAll(newVisits);
+        });
+    }
+
+    @Benchmark
+    public List<Long> insertVisitsWithIdentity() {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>(visits);
+            for (int i = 0; i < visits; i++) {
+                LocalDateTime startDate = FIRST_VISIT.plusMinutes(15 * slot++);
+                ids.add(insertWithIdentity("insert into visits_identity (start_date, end_date, doctor_id, version) values (?, ?, ?, 0)",
+                        startDate, startDate.plusMinutes(15), doctorId));
+            }
+            return ids;
+        });
+    }
+
+    @Benchmark
+    public List<Patient> saveAllPatients() {
+        return transactionTemplate.execute(status -> {
+            List<Patient> newPatients = new ArrayList<>(visits);
+            for (int i = 0; i < visits; i++) {
+                long number = patient++;
+                Patient newPatient = new Patient();
+                newPatient.setEmail("patient" + number + "@onet.pl");
+                newPatient.setPassword("password123");
+                newPatient.setIdCardNo("ABC" + number);
+                newPatient.setPhoneNumber("555555555");
+                newPatient.setBirthday(BIRTHDAY);
+                newPatient.setUser(new User(null, "Anna", "Pacjent" + number));
+                newPatients.add(newPatient);
+            }
+            return patientRepository.saveAll(newPatients);
+        });
+    }
+
+    @Benchmark
+    public List<Long> insertPatientsWithIdentity() {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>(visits);
+            for (int i = 0; i < visits; i++) {
+                long number = patient++;
+                Long userId = insertWithIdentity("insert into users_identity (first_name, last_name) values (?, ?)",
+                        "Anna", "Pacjent" + number);
+                ids.add(insertWithIdentity("insert into patients_identity (email, password, id_card_number, phone_number, birthday, user_id) " +
+                        "values (?, ?, ?, ?, ?, ?)", "patient" + number + "@onet.pl", "password123", "ABC" + number, "555555555", BIRTHDAY, userId));
+            }
+            return ids;
+        });
+    }
+
+    private Long insertWithIdentity(String sql, Object... parameters) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"});
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKeyAs(Long.class);
+    }
+}
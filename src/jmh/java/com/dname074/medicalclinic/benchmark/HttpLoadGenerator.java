@@ -0,0 +1,98 @@
+package com.dname074.medicalclinic.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+public class HttpLoadGenerator {
+    private static final String BASE_URL = System.getProperty("load.baseUrl", "http://localhost:8080");
+    private static final int CLIENTS = Integer.getInteger("load.clients", 2000);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+    private static final int VISITS = Integer.getInteger("load.visits", 10_000);
+    private static final int PATIENTS = Integer.getInteger("load.patients", 1000);
+
+    public static void main(String[] args) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        run("GET /patients", client, () -> HttpRequest.newBuilder(URI.create(BASE_URL + "/patients?page=0&size=20"))
+                .GET()
+                .build());
+        run("PATCH /visits/{id}/patients/{id}", client, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            URI uri = URI.create(BASE_URL + "/visits/" + (random.nextInt(VISITS) + 1) + "/patients/" + (random.nextInt(PATIENTS) + 1));
+            return HttpRequest.newBuilder(uri)
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build();
+        });
+    }
+
+    private static void run(String scenario, HttpClient client, Supplier<HttpRequest> requests) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(DURATION_SECONDS).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                results.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(requests.get(), HttpResponse.BodyHandlers.discarding());
+                            // 409 przy rezerwacji zajętego terminu jest poprawną odpowiedzią, a nie błędem obciążenia
+                            if (response.statusCode() >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception exception) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long[] latencies = results.stream()
+                .map(HttpLoadGenerator::join)
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+        System.out.printf("{\"scenario\":\"%s\",\"clients\":%d,\"requests\":%d,\"errors\":%d,\"throughput\":%.1f,\"p50Ms\":%.2f,\"p99Ms\":%.2f}%n",
+                scenario, CLIENTS, latencies.length, errors.get(), (double) latencies.length / DURATION_SECONDS,
+                percentile(latencies, 0.50), percentile(latencies, 0.99));
+    }
+
+    private static long[] join(Future<long[]> result) {
+        try {
+            return result.get();
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
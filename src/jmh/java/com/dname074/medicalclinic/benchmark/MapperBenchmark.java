@@ -0,0 +1,122 @@
+package com.dname074.medicalclinic.benchmark;
+
+import com.dname074.medicalclinic.dto.DoctorDto;
+import com.dname074.medicalclinic.dto.PageDto;
+import com.dname074.medicalclinic.dto.PatientDto;
+import com.dname074.medicalclinic.mapper.DoctorMapper;
+import com.dname074.medicalclinic.mapper.PageMapper;
+import com.dname074.medicalclinic.mapper.PatientMapper;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.User;
+import com.dname074.medicalclinic.model.Visit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"20", "1000"})
+    int pageSize;
+
+    DoctorMapper doctorMapper;
+    PatientMapper patientMapper;
+    PageMapper pageMapper;
+    List<Doctor> doctors;
+    List<Patient> patients;
+    Page<PatientDto> patientDtoPage;
+
+    @Setup
+    public void setup() {
+        doctorMapper = Mappers.getMapper(DoctorMapper.class);
+        patientMapper = Mappers.getMapper(PatientMapper.class);
+        pageMapper = Mappers.getMapper(PageMapper.class);
+        doctors = new ArrayList<>();
+        patients = new ArrayList<>();
+        for (long i = 0; i < pageSize; i++) {
+            Doctor doctor = createDoctor(i);
+            doctors.add(doctor);
+            patients.add(createPatient(i, doctor));
+        }
+        patientDtoPage = new PageImpl<>(patients.stream().map(patientMapper::toDto).toList(),
+                PageRequest.of(0, pageSize), 100_000L);
+    }
+
+    @Benchmark
+    public List<DoctorDto> doctorsToDto() {
+        return doctors.stream()
+                .map(doctorMapper::toDto)
+                .toList();
+    }
+
+    @Benchmark
+    public List<PatientDto> patientsWithVisitsToDto() {
+        return patients.stream()
+                .map(patientMapper::toDto)
+                .toList();
+    }
+
+    @Benchmark
+    public PageDto<PatientDto> patientPageToPageDto() {
+        return pageMapper.toPatientDto(patientDtoPage);
+    }
+
+    private Doctor createDoctor(long id) {
+        Doctor doctor = new Doctor();
+        doctor.setId(id);
+        doctor.setEmail("doctor" + id + "@onet.pl");
+        doctor.setPassword("password123");
+        doctor.setSpecialization(Specialization.CARDIOLOGIST);
+        doctor.setUser(new User(id, "Jan", "Doktor" + id));
+        doctor.setInstitutions(new HashSet<>());
+        doctor.setVisits(new ArrayList<>());
+        return doctor;
+    }
+
+    private Patient createPatient(long id, Doctor doctor) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setEmail("patient" + id + "@onet.pl");
+        patient.setPassword("password123");
+        patient.setIdCardNo("ABC" + id);
+        patient.setPhoneNumber("555555555");
+        patient.setBirthday(LocalDate.of(1990, 1, 1));
+        patient.setUser(new User(id, "Anna", "Pacjent" + id));
+        patient.setVisits(new ArrayList<>());
+        for (int i = 0; i < 3; i++) {
+            Visit visit = new Visit();
+            visit.setId(id * 3 + i);
+            visit.setStartDate(LocalDateTime.of(2030, 1, 1, 8, 0).plusHours(i));
+            visit.setEndDate(visit.getStartDate().plusMinutes(30));
+            visit.setDoctor(doctor);
+            visit.setPatient(patient);
+            patient.addVisit(visit);
+        }
+        return patient;
+    }
+}
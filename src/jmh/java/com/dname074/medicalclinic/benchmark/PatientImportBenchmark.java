@@ -0,0 +1,97 @@
+package com.dname074.medicalclinic.benchmark;
+
+import com.dname074.medicalclinic.MedicalclinicApplication;
+import com.dname074.medicalclinic.dto.PatientImportReportDto;
+import com.dname074.medicalclinic.repository.PatientRepository;
+import com.dname074.medicalclinic.service.PatientImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+// każde wywołanie importuje nowych pacjentów (kolejne numery w emailu i nazwisku), więc mierzony jest zapis,
+// a nie odrzucanie duplikatów; treść pliku jest budowana poza pomiarem
+public class PatientImportBenchmark {
+    @Param({"1000", "10000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    PatientImportService patientImportService;
+    PatientRepository patientRepository;
+    JdbcTemplate jdbcTemplate;
+    long patient;
+    byte[] csv;
+    byte[] ndjson;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(MedicalclinicApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.com.dname074=WARN")
+                .run();
+        patientImportService = context.getBean(PatientImportService.class);
+        patientRepository = context.getBean(PatientRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void createFiles() {
+        StringBuilder csvBuilder = new StringBuilder("email,password,idCardNo,firstName,lastName,phoneNumber,birthday\n");
+        StringBuilder ndjsonBuilder = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            long number = patient++;
+            csvBuilder.append("patient").append(number).append("@onet.pl,password123,ABC").append(number)
+                    .append(",Anna,Pacjent").append(number).append(",555555555,1990-01-01\n");
+            ndjsonBuilder.append("{\"email\":\"patient").append(number).append("@onet.pl\",\"password\":\"password123\",")
+                    .append("\"idCardNo\":\"ABC").append(number).append("\",\"firstName\":\"Anna\",\"lastName\":\"Pacjent")
+                    .append(number).append("\",\"phoneNumber\":\"555555555\",\"birthday\":\"1990-01-01\"}\n");
+        }
+        csv = csvBuilder.toString().getBytes(StandardCharsets.UTF_8);
+        ndjson = ndjsonBuilder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearPatients() {
+        patientRepository.deleteAllInBatch();
+        jdbcTemplate.update("delete from users where id not in (select user_id from doctors)");
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    @Benchmark
+    public PatientImportReportDto importCsv() throws IOException {
+        return patientImportService.importPatientsFromCsv(new ByteArrayInputStream(csv));
+    }
+
+    @Benchmark
+    public PatientImportReportDto importNdjson() throws IOException {
+        return patientImportService.importPatientsFromNdjson(new ByteArrayInputStream(ndjson));
+    }
+}
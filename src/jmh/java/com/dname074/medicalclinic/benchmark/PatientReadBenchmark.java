@@ -0,0 +1,134 @@
+package com.dname074.medicalclinic.benchmark;
+
+import com.dname074.medicalclinic.MedicalclinicApplication;
+import com.dname074.medicalclinic.dto.PageDto;
+import com.dname074.medicalclinic.dto.PatientDto;
+import com.dname074.medicalclinic.mapper.PageMapper;
+import com.dname074.medicalclinic.mapper.PatientMapper;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.User;
+import com.dname074.medicalclinic.model.Visit;
+import com.dname074.medicalclinic.repository.PatientRepository;
+import com.dname074.medicalclinic.service.PatientService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// alokacje na żądanie odczytuje się z gc.alloc.rate.norm profilera gc (profil benchmark uruchamia go z -prof gc);
+// readWritePage odtwarza ścieżkę sprzed transakcji tylko do odczytu - to samo zapytanie bez podpowiedzi
+// w transakcji do zapisu, więc Hibernate trzyma kopie stanu encji i sprawdza je przy commicie
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientReadBenchmark {
+    private static final String PATIENTS_WITH_VISITS = "select distinct p from Patient p join fetch p.user " +
+            "left join fetch p.visits v left join fetch v.doctor d left join fetch d.user where p.id in :ids";
+
+    @Param({"100", "1000"})
+    int pageSize;
+
+    ConfigurableApplicationContext context;
+    TransactionTemplate transactionTemplate;
+    EntityManager entityManager;
+    PatientService patientService;
+    PatientRepository patientRepository;
+    PatientMapper patientMapper;
+    PageMapper pageMapper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new SpringApplicationBuilder(MedicalclinicApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show-sql=false", "logging.level.com.dname074=WARN")
+                .run();
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        patientService = context.getBean(PatientService.class);
+        patientRepository = context.getBean(PatientRepository.class);
+        patientMapper = context.getBean(PatientMapper.class);
+        pageMapper = context.getBean(PageMapper.class);
+        transactionTemplate.executeWithoutResult(status -> createPatients());
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    @Benchmark
+    public PageDto<PatientDto> readOnlyPage() {
+        return patientService.findAll(PageRequest.of(0, pageSize));
+    }
+
+    @Benchmark
+    public PageDto<PatientDto> readWritePage() {
+        return transactionTemplate.execute(status -> {
+            Page<Long> ids = patientRepository.findAllIds(PageRequest.of(0, pageSize));
+            Map<Long, Patient> patients = entityManager.createQuery(PATIENTS_WITH_VISITS, Patient.class)
+                    .setParameter("ids", ids.getContent())
+                    .getResultList().stream()
+                    .collect(Collectors.toMap(Patient::getId, Function.identity()));
+            return pageMapper.toPatientDto(ids.map(patients::get).map(patientMapper::toDto));
+        });
+    }
+
+    private void createPatients() {
+        Doctor doctor = new Doctor();
+        doctor.setEmail("read.benchmark@onet.pl");
+        doctor.setPassword("password123");
+        doctor.setSpecialization(Specialization.CARDIOLOGIST);
+        doctor.setUser(new User(null, "Jan", "Odczyt"));
+        entityManager.persist(doctor);
+        LocalDateTime firstVisit = LocalDateTime.of(2030, 1, 1, 8, 0);
+        for (int i = 0; i < pageSize; i++) {
+            Patient patient = new Patient();
+            patient.setEmail("read.patient" + i + "@onet.pl");
+            patient.setPassword("password123");
+            patient.setIdCardNo("READ" + i);
+            patient.setPhoneNumber("555555555");
+            patient.setBirthday(LocalDate.of(1990, 1, 1));
+            patient.setUser(new User(null, "Anna", "Odczyt" + i));
+            entityManager.persist(patient);
+            for (int j = 0; j < 3; j++) {
+                Visit visit = new Visit();
+                visit.setStartDate(firstVisit.plusMinutes(15L * (3L * i + j)));
+                visit.setEndDate(visit.getStartDate().plusMinutes(15));
+                visit.setDoctor(doctor);
+                visit.setPatient(patient);
+                entityManager.persist(visit);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.dname074.medicalclinic.benchmark;
+
+import com.dname074.medicalclinic.index.DoctorVisitIndex;
+import com.dname074.medicalclinic.repository.VisitRepository;
+import com.dname074.medicalclinic.validation.VisitValidator;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisitValidatorBenchmark {
+    private static final LocalDateTime FIRST_VISIT = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    @Param({"100", "100000"})
+    int scheduledVisits;
+
+    VisitValidator validator;
+    LocalDateTime freeStartDate;
+
+    @Setup
+    public void setup() {
+        Clock clock = Clock.fixed(LocalDateTime.of(2026, 1, 1, 0, 0).atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        DoctorVisitIndex doctorVisitIndex = new DoctorVisitIndex(Mockito.mock(VisitRepository.class), clock);
+        // co drugi kwadrans zajęty, żeby sprawdzany termin zawsze miał sąsiadów po obu stronach
+        for (int i = 0; i < scheduledVisits; i++) {
+            LocalDateTime startDate = FIRST_VISIT.plusMinutes(30L * i);
+            doctorVisitIndex.reserve(1L, startDate, startDate.plusMinutes(15));
+        }
+        validator = new VisitValidator(doctorVisitIndex, clock);
+        freeStartDate = FIRST_VISIT.plusMinutes(30L * (scheduledVisits / 2) + 15);
+    }
+
+    @Benchmark
+    public void validateVisitDate() {
+        validator.validateVisitDate(1L, freeStartDate, freeStartDate.plusMinutes(15));
+    }
+}
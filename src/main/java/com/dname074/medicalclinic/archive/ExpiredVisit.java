@@ -0,0 +1,4 @@
+package com.dname074.medicalclinic.archive;
+
+public record ExpiredVisit(Long id, Long patientId) {
+}
@@ -0,0 +1,100 @@
+package com.dname074.medicalclinic.archive;
+
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
+import com.dname074.medicalclinic.index.AvailableVisitIndex;
+import com.dname074.medicalclinic.index.DoctorVisitIndex;
+import com.dname074.medicalclinic.repository.VisitArchiveJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+// każda paczka to osobna krótka transakcja, więc sprzątanie dużej historii nie trzyma blokad na całej tabeli visits,
+// a tabela rośnie tylko z horyzontem przyszłych terminów - zajęte wizyty trafiają do archiwum, wolne są usuwane
+@Slf4j
+@Component
+public class VisitArchiver {
+    private final VisitArchiveJdbcRepository visitArchiveRepository;
+    private final DoctorVisitIndex doctorVisitIndex;
+    private final AvailableVisitIndex availableVisitIndex;
+    private final ResponseCache responseCache;
+    private final TransactionOperations transaction;
+    private final Clock clock;
+    private final Duration retention;
+    private final int chunkSize;
+    private final Counter archivedVisits;
+    private final Counter droppedVisits;
+
+    public VisitArchiver(VisitArchiveJdbcRepository visitArchiveRepository, DoctorVisitIndex doctorVisitIndex,
+                         AvailableVisitIndex availableVisitIndex, ResponseCache responseCache,
+                         PlatformTransactionManager transactionManager, MeterRegistry meterRegistry, Clock clock,
+                         @Value("${visit-archive.retention:7d}") Duration retention,
+                         @Value("${visit-archive.chunk-size:500}") int chunkSize) {
+        this.visitArchiveRepository = visitArchiveRepository;
+        this.doctorVisitIndex = doctorVisitIndex;
+        this.availableVisitIndex = availableVisitIndex;
+        this.responseCache = responseCache;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.archivedVisits = Counter.builder("medicalclinic.visits.archive")
+                .tag("result", "archived")
+                .register(meterRegistry);
+        this.droppedVisits = Counter.builder("medicalclinic.visits.archive")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${visit-archive.interval:1h}", initialDelayString = "${visit-archive.interval:1h}")
+    public int archiveExpiredVisits() {
+        log.info("Process of archiving expired visits started");
+        LocalDateTime endedBefore = LocalDateTime.now(clock).minus(retention);
+        int moved = 0;
+        ArchivedChunk chunk;
+        do {
+            chunk = Objects.requireNonNull(transaction.execute(status -> archiveChunk(endedBefore)));
+            // liczniki rosną dopiero po commicie paczki, więc wycofana paczka nie zawyża metryk
+            archivedVisits.increment(chunk.archived());
+            droppedVisits.increment(chunk.dropped());
+            moved += chunk.archived() + chunk.dropped();
+        } while (chunk.archived() + chunk.dropped() == chunkSize);
+        doctorVisitIndex.evictBefore(endedBefore);
+        availableVisitIndex.evictBefore(endedBefore);
+        log.info("Process of archiving expired visits ended, {} visits moved", moved);
+        return moved;
+    }
+
+    private ArchivedChunk archiveChunk(LocalDateTime endedBefore) {
+        List<ExpiredVisit> visits = visitArchiveRepository.findEndedBefore(endedBefore, chunkSize);
+        if (visits.isEmpty()) {
+            return new ArchivedChunk(0, 0);
+        }
+        List<Long> ids = visits.stream()
+                .map(ExpiredVisit::id)
+                .toList();
+        int archived = visitArchiveRepository.archiveBooked(ids, LocalDateTime.now(clock));
+        int deleted = visitArchiveRepository.deleteAll(ids);
+        responseCache.evictAfterCommit(ResponseRegion.PATIENT, visits.stream()
+                .map(ExpiredVisit::patientId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+        return new ArchivedChunk(archived, deleted - archived);
+    }
+
+    private record ArchivedChunk(int archived, int dropped) {
+    }
+}
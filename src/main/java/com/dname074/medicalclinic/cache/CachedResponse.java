@@ -0,0 +1,4 @@
+package com.dname074.medicalclinic.cache;
+
+public record CachedResponse(byte[] body, String etag) {
+}
@@ -0,0 +1,102 @@
+package com.dname074.medicalclinic.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+@Component
+public class ResponseCache {
+    private final ObjectMapper objectMapper;
+    private final TransactionOperations readOnlyTransaction;
+    private final Cache<ResponseKey, CachedResponse> responses;
+    // numer pokolenia regionu jest częścią klucza - wyliczenie rozpoczęte przed evictAll zapisuje się pod kluczem,
+    // którego nikt już nie odczyta, zamiast wrócić do cache'u po wyczyszczeniu regionu
+    private final AtomicLongArray generations = new AtomicLongArray(ResponseRegion.values().length);
+
+    public ResponseCache(ObjectMapper objectMapper, MeterRegistry meterRegistry, PlatformTransactionManager transactionManager,
+                         @Value("${response-cache.ttl:10m}") Duration ttl,
+                         @Value("${response-cache.size:10000}") long size) {
+        this.objectMapper = objectMapper;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        this.readOnlyTransaction = transactionTemplate;
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(size)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "responses");
+    }
+
+    public CachedResponse get(ResponseRegion region, Long id, Supplier<?> loader) {
+        return responses.get(key(region, id), key -> toCachedResponse(readOnlyTransaction.execute(status -> loader.get())));
+    }
+
+    // usunięcie czeka na ewentualne trwające wyliczenie tego klucza, więc po commicie nie zostaje w cache'u stara odpowiedź
+    public void evictAfterCommit(ResponseRegion region, Collection<Long> ids) {
+        List<Long> evictedIds = List.copyOf(ids);
+        // klucze liczone dopiero po commicie - z pokoleniem aktualnym w chwili usuwania
+        runAfterCommit(() -> responses.invalidateAll(evictedIds.stream()
+                .map(id -> key(region, id))
+                .toList()));
+    }
+
+    // po zmianie pokolenia stare wpisy są już nieosiągalne - usuwane są tylko po to, by zwolnić miejsce
+    public void evictAllAfterCommit(ResponseRegion region) {
+        runAfterCommit(() -> {
+            long generation = generations.incrementAndGet(region.ordinal());
+            responses.asMap().keySet().removeIf(key -> key.region() == region && key.generation() < generation);
+        });
+    }
+
+    private ResponseKey key(ResponseRegion region, Long id) {
+        return new ResponseKey(region, generations.get(region.ordinal()), id);
+    }
+
+    private void runAfterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    // silny ETag z treści odpowiedzi - liczony raz przy serializacji, kolejne zapytania porównują gotowy skrót
+    private CachedResponse toCachedResponse(Object response) {
+        byte[] body = serialize(response);
+        return new CachedResponse(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+    }
+
+    private byte[] serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Nie udało się zserializować odpowiedzi", exception);
+        }
+    }
+
+    private record ResponseKey(ResponseRegion region, long generation, Long id) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.dname074.medicalclinic.cache;
+
+public enum ResponseRegion {
+    DOCTOR,
+    INSTITUTION,
+    PATIENT
+}
@@ -1,11 +1,18 @@
 package com.dname074.medicalclinic.controller;
 
+import com.dname074.medicalclinic.cache.CachedResponse;
+import com.dname074.medicalclinic.dto.CalendarVisitDto;
+import com.dname074.medicalclinic.dto.CursorPageDto;
+import com.dname074.medicalclinic.dto.FreeSlotDto;
 import com.dname074.medicalclinic.dto.MedicalClinicExceptionDto;
 import com.dname074.medicalclinic.dto.PageDto;
+import com.dname074.medicalclinic.dto.ScheduleDto;
 import com.dname074.medicalclinic.dto.ValidationExceptionDto;
 import com.dname074.medicalclinic.dto.command.CreateDoctorCommand;
 import com.dname074.medicalclinic.dto.DoctorDto;
+import com.dname074.medicalclinic.dto.command.CreateScheduleCommand;
 import com.dname074.medicalclinic.service.DoctorService;
+import com.dname074.medicalclinic.service.VisitService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -17,7 +24,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -25,9 +35,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
@@ -35,6 +49,7 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Doctors operations", description = "Endpoints related to operations on doctors")
 public class DoctorController {
     private final DoctorService service;
+    private final VisitService visitService;
 
     @Operation(summary = "Get all doctors in page based on request params")
     @GetMapping
@@ -43,6 +58,14 @@ public class DoctorController {
         return service.findAllDoctors(pageRequest);
     }
 
+    @Operation(summary = "Get doctors after given cursor")
+    @GetMapping(params = "after")
+    public CursorPageDto<DoctorDto> findAllDoctorsAfter(@RequestParam String after, @RequestParam(defaultValue = "20") int size,
+                                                        @RequestParam(defaultValue = "false") boolean withCount) {
+        log.info("Received GET /doctors request with parameters: after={}, size={}, withCount={}", after, size, withCount);
+        return service.findAllDoctorsAfter(after, size, withCount);
+    }
+
     @Operation(summary = "Get doctor by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Doctor found",
@@ -50,6 +73,7 @@ public class DoctorController {
                     @Content(mediaType = "application/json",
                     schema = @Schema(implementation = DoctorDto.class))
             }),
+            @ApiResponse(responseCode = "304", description = "Doctor not modified since given ETag"),
             @ApiResponse(responseCode = "400", description = "Arguments not valid",
                     content = {
                             @Content(mediaType = "application/json",
@@ -61,10 +85,63 @@ public class DoctorController {
                     schema = @Schema(implementation = MedicalClinicExceptionDto.class))
             })
     })
-    @GetMapping("/{doctorId}")
-    public DoctorDto findDoctorById(@PathVariable Long doctorId) {
+    @GetMapping(value = "/{doctorId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> findDoctorById(@PathVariable Long doctorId) {
         log.info("Received GET /doctors/id request with id parameter {}", doctorId);
-        return service.getDoctorDtoById(doctorId);
+        // ResponseEntity z ETagiem sam odpowiada 304 przy zgodnym If-None-Match, bez zapisu treści
+        CachedResponse response = service.getSerializedDoctorById(doctorId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(response.etag())
+                .body(response.body());
+    }
+
+    @Operation(summary = "Get doctor's visits starting in given range as calendar entries")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Calendar returned"),
+            @ApiResponse(responseCode = "400", description = "Incorrect search range",
+            content = {
+                    @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+            }),
+            @ApiResponse(responseCode = "404", description = "Doctor not found",
+            content = {
+                    @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+            })
+    })
+    @GetMapping("/{doctorId}/visits")
+    public List<CalendarVisitDto> getDoctorCalendar(@PathVariable Long doctorId,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                    @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Received GET /doctors/id/visits request with parameters: id={}, from={}, to={}", doctorId, from, to);
+        return visitService.getDoctorCalendar(doctorId, from, to);
+    }
+
+    @Operation(summary = "Get start of doctor's first not booked visit lasting at least given length after given date")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Free visit found",
+            content = {
+                    @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = FreeSlotDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Incorrect visit length",
+            content = {
+                    @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+            }),
+            @ApiResponse(responseCode = "404", description = "Doctor not found or no free slot in search range",
+            content = {
+                    @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+            })
+    })
+    @GetMapping("/{doctorId}/availability")
+    public FreeSlotDto findFirstFreeSlot(@PathVariable Long doctorId,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+                                         @RequestParam(defaultValue = "15") int length) {
+        log.info("Received GET /doctors/id/availability request with parameters: id={}, after={}, length={}", doctorId, after, length);
+        return visitService.findFirstFreeSlot(doctorId, after, length);
     }
 
     @Operation(summary = "Add doctor to medical clinic system")
@@ -139,4 +216,29 @@ public class DoctorController {
         log.info("Received DELETE /doctors/id request with id parameter={}", doctorId);
         return service.deleteDoctorById(doctorId);
     }
+
+    @Operation(summary = "Create doctor's available visits based on weekly schedule")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Visits created",
+            content = {
+                    @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ScheduleDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Incorrect schedule or visit date already taken",
+            content = {
+                    @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+            }),
+            @ApiResponse(responseCode = "404", description = "Doctor not found",
+            content = {
+                    @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+            })
+    })
+    @PostMapping("/{doctorId}/schedule")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ScheduleDto addSchedule(@PathVariable Long doctorId, @RequestBody @Valid CreateScheduleCommand createScheduleCommand) {
+        log.info("Received POST /doctors/id/schedule request with id parameter={} and body={}", doctorId, createScheduleCommand);
+        return visitService.addSchedule(doctorId, createScheduleCommand);
+    }
 }
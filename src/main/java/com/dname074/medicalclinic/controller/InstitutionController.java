@@ -1,7 +1,10 @@
 package com.dname074.medicalclinic.controller;
 
+import com.dname074.medicalclinic.cache.CachedResponse;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.*;
 import com.dname074.medicalclinic.dto.command.CreateInstitutionCommand;
+import com.dname074.medicalclinic.dto.command.ReplaceInstitutionDoctorsCommand;
 import com.dname074.medicalclinic.service.InstitutionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +18,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -23,6 +28,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -41,6 +47,14 @@ public class InstitutionController {
         return service.findAllInstitutions(pageRequest);
     }
 
+    @Operation(summary = "Get institutions after given cursor")
+    @GetMapping(params = "after")
+    public CursorPageDto<InstitutionDto> findAllInstitutionsAfter(@RequestParam String after, @RequestParam(defaultValue = "20") int size,
+                                                                  @RequestParam(defaultValue = "false") boolean withCount) {
+        log.info("Received GET /institutions request with parameters after={}, size={} and withCount={}", after, size, withCount);
+        return service.findAllInstitutionsAfter(after, size, withCount);
+    }
+
     @Operation(summary = "Get institution by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Institution found",
@@ -48,6 +62,7 @@ public class InstitutionController {
                             @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = InstitutionDto.class))
                     }),
+            @ApiResponse(responseCode = "304", description = "Institution not modified since given ETag"),
             @ApiResponse(responseCode = "400", description = "Not valid arguments passed",
                     content = {
                             @Content(mediaType = "application/json",
@@ -59,10 +74,14 @@ public class InstitutionController {
                                     schema = @Schema(implementation = MedicalClinicExceptionDto.class))
                     })
     })
-    @GetMapping("/{institutionId}")
-    public InstitutionDto findInstitutionById(@PathVariable Long institutionId) {
+    @GetMapping(value = "/{institutionId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> findInstitutionById(@PathVariable Long institutionId) {
         log.info("Received GET /institutions/id with parameter id={}", institutionId);
-        return service.getInstitutionDtoById(institutionId);
+        CachedResponse response = service.getSerializedInstitutionById(institutionId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(response.etag())
+                .body(response.body());
     }
 
     @Operation(summary = "Add new institution to medical clinic system")
@@ -143,6 +162,31 @@ public class InstitutionController {
         return service.assignDoctorToInstitution(doctorId, institutionId);
     }
 
+    @Operation(summary = "Replace all doctors assigned to institution with given set")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Institution's doctors replaced",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = InstitutionDoctorsDto.class))
+                    }),
+            @ApiResponse(responseCode = "400", description = "Not valid arguments passed",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = ValidationExceptionDto.class))
+                    }),
+            @ApiResponse(responseCode = "404", description = "Doctor or institution not found",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+                    })
+    })
+    @PutMapping("/{institutionId}/doctors")
+    public InstitutionDoctorsDto replaceDoctors(@PathVariable Long institutionId,
+                                                @RequestBody @Valid ReplaceInstitutionDoctorsCommand replaceInstitutionDoctorsCommand) {
+        log.info("Received PUT /institutions/institutionId/doctors request with institutionId={} and body={}", institutionId, replaceInstitutionDoctorsCommand);
+        return service.replaceDoctors(institutionId, replaceInstitutionDoctorsCommand);
+    }
+
     @Operation(summary = "Delete institution by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Institution deleted",
@@ -1,11 +1,16 @@
 package com.dname074.medicalclinic.controller;
 
+import com.dname074.medicalclinic.cache.CachedResponse;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.MedicalClinicExceptionDto;
 import com.dname074.medicalclinic.dto.PageDto;
+import com.dname074.medicalclinic.dto.PatientImportReportDto;
 import com.dname074.medicalclinic.dto.ValidationExceptionDto;
 import com.dname074.medicalclinic.dto.command.CreatePatientCommand;
+import com.dname074.medicalclinic.dto.simple.SimplePatientDto;
 import com.dname074.medicalclinic.dto.command.ChangePasswordCommand;
 import com.dname074.medicalclinic.dto.PatientDto;
+import com.dname074.medicalclinic.service.PatientImportService;
 import com.dname074.medicalclinic.service.PatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,6 +24,8 @@ import lombok.extern.slf4j.Slf4j;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -27,8 +34,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @Slf4j
 @RestController
@@ -37,6 +49,7 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Patients operations", description = "Endpoints related to operations on patients")
 public class PatientController {
     private final PatientService patientService;
+    private final PatientImportService patientImportService;
 
     @Operation(summary = "Get all patients in page based on request params")
     @GetMapping
@@ -45,6 +58,28 @@ public class PatientController {
         return patientService.findAll(pageRequest);
     }
 
+    @Operation(summary = "Get patients after given cursor")
+    @GetMapping(params = "after")
+    public CursorPageDto<PatientDto> findAllAfter(@RequestParam String after, @RequestParam(defaultValue = "20") int size,
+                                                  @RequestParam(defaultValue = "false") boolean withCount) {
+        log.info("Received GET /patients request with parameters after={}, size={} and withCount={}", after, size, withCount);
+        return patientService.findAllAfter(after, size, withCount);
+    }
+
+    @Operation(summary = "Export all patients as newline-delimited JSON")
+    @ApiResponse(responseCode = "200", description = "Patients exported",
+            content = {
+                    @Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = SimplePatientDto.class))
+            })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportPatients() {
+        log.info("Received GET /patients/export request");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(patientService::exportPatients);
+    }
+
     @Operation(summary = "Get patient by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Patient found",
@@ -52,6 +87,7 @@ public class PatientController {
                             @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = PatientDto.class))
                     }),
+            @ApiResponse(responseCode = "304", description = "Patient not modified since given ETag"),
             @ApiResponse(responseCode = "404", description = "Patient not found",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = MedicalClinicExceptionDto.class))
@@ -62,10 +98,14 @@ public class PatientController {
                                     schema = @Schema(implementation = ValidationExceptionDto.class))
                     })
     })
-    @GetMapping("/{patientId}")
-    public PatientDto findPatientById(@PathVariable Long patientId) {
+    @GetMapping(value = "/{patientId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> findPatientById(@PathVariable Long patientId) {
         log.info("Received GET /patients/id request with id parameter={}", patientId);
-        return patientService.getPatientDtoById(patientId);
+        CachedResponse response = patientService.getSerializedPatientById(patientId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(response.etag())
+                .body(response.body());
     }
 
     @Operation(summary = "Add new patient to medical clinic system")
@@ -92,6 +132,30 @@ public class PatientController {
         return patientService.addPatient(patient);
     }
 
+    @Operation(summary = "Import patients from newline-delimited JSON stream")
+    @ApiResponse(responseCode = "200", description = "Patients imported, rejected rows listed in report",
+            content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PatientImportReportDto.class))
+            })
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public PatientImportReportDto importPatientsFromNdjson(InputStream body) throws IOException {
+        log.info("Received POST /patients/import request with NDJSON body");
+        return patientImportService.importPatientsFromNdjson(body);
+    }
+
+    @Operation(summary = "Import patients from CSV stream with header row")
+    @ApiResponse(responseCode = "200", description = "Patients imported, rejected rows listed in report",
+            content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PatientImportReportDto.class))
+            })
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public PatientImportReportDto importPatientsFromCsv(InputStream body) throws IOException {
+        log.info("Received POST /patients/import request with CSV body");
+        return patientImportService.importPatientsFromCsv(body);
+    }
+
     @Operation(summary = "Update existing patient by id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Patient updated",
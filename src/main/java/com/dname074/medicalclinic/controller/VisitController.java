@@ -1,9 +1,13 @@
 package com.dname074.medicalclinic.controller;
 
+import com.dname074.medicalclinic.dto.AvailableVisitDto;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.MedicalClinicExceptionDto;
 import com.dname074.medicalclinic.dto.PageDto;
 import com.dname074.medicalclinic.dto.VisitDto;
+import com.dname074.medicalclinic.dto.VisitHoldDto;
 import com.dname074.medicalclinic.dto.command.CreateVisitCommand;
+import com.dname074.medicalclinic.model.Specialization;
 import com.dname074.medicalclinic.service.VisitService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -27,6 +32,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
@@ -38,10 +46,37 @@ public class VisitController {
     @Operation(summary = "Get patient's visits by id")
     @GetMapping("/patients")
     public PageDto<VisitDto> getVisitsByPatientId(@RequestParam Long id, @ParameterObject Pageable pageRequest) {
-        log.info("Received GET /patients request with parameters: id={}, page={}, size={}", id, pageRequest.getPageNumber(), pageRequest.getPageSize());
+        log.info("Received GET /visits/patients request with parameters: id={}, page={}, size={}", id, pageRequest.getPageNumber(), pageRequest.getPageSize());
         return service.getVisitsByPatientId(id, pageRequest);
     }
 
+    @Operation(summary = "Get patient's visits after given cursor")
+    @GetMapping(value = "/patients", params = "after")
+    public CursorPageDto<VisitDto> getVisitsByPatientIdAfter(@RequestParam Long id, @RequestParam String after,
+                                                             @RequestParam(defaultValue = "20") int size,
+                                                             @RequestParam(defaultValue = "false") boolean withCount) {
+        log.info("Received GET /visits/patients request with parameters: id={}, after={}, size={}, withCount={}", id, after, size, withCount);
+        return service.getVisitsByPatientIdAfter(id, after, size, withCount);
+    }
+
+    @Operation(summary = "Find available visits by doctor's specialization, institution's town and date range")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Available visits found"),
+            @ApiResponse(responseCode = "400", description = "Incorrect date range",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+                    })
+    })
+    @GetMapping("/available")
+    public List<AvailableVisitDto> findAvailableVisits(@RequestParam Specialization specialization,
+                                                       @RequestParam(required = false) String town,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Received GET /visits/available request with parameters: specialization={}, town={}, from={}, to={}", specialization, town, from, to);
+        return service.findAvailableVisits(specialization, town, from, to);
+    }
+
     @Operation(summary = "Add available visit")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Visit added",
@@ -67,6 +102,36 @@ public class VisitController {
         return service.addAvailableVisit(createVisitCommand);
     }
 
+    @Operation(summary = "Hold visit for patient for a short time before assigning")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Visit held",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = VisitHoldDto.class))
+                    }),
+            @ApiResponse(responseCode = "400", description = "Visit expired",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+                    }),
+            @ApiResponse(responseCode = "404", description = "Visit not found or Patient not found",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+                    }),
+            @ApiResponse(responseCode = "409", description = "Visit already booked or held by another patient",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+                    })
+    })
+    @PostMapping("/{visitId}/hold")
+    @ResponseStatus(HttpStatus.CREATED)
+    public VisitHoldDto hold(@PathVariable Long visitId, @RequestParam Long patientId) {
+        log.info("Received POST /visits/{}/hold request with patientId parameter {}", visitId, patientId);
+        return service.hold(visitId, patientId);
+    }
+
     @Operation(summary = "Assign patient to visit")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Patient assigned to visit",
@@ -0,0 +1,81 @@
+package com.dname074.medicalclinic.controller;
+
+import com.dname074.medicalclinic.dto.MedicalClinicExceptionDto;
+import com.dname074.medicalclinic.dto.WaitlistEntryDto;
+import com.dname074.medicalclinic.dto.command.CreateWaitlistEntryCommand;
+import com.dname074.medicalclinic.service.WaitlistService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/waitlist")
+@Tag(name = "Waitlist operations", description = "Endpoints related to operations on waitlist for fully booked doctors")
+public class WaitlistController {
+    private final WaitlistService service;
+
+    @Operation(summary = "Add patient to waitlist of doctor or specialization")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Waitlist entry added",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = WaitlistEntryDto.class))
+                    }),
+            @ApiResponse(responseCode = "400", description = "Neither or both doctor and specialization given",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+                    }),
+            @ApiResponse(responseCode = "404", description = "Patient not found or Doctor not found",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+                    }),
+            @ApiResponse(responseCode = "409", description = "Patient already on waitlist",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+                    })
+    })
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public WaitlistEntryDto addEntry(@RequestBody @Valid CreateWaitlistEntryCommand createWaitlistEntryCommand) {
+        log.info("Received POST /waitlist request {}", createWaitlistEntryCommand.toString());
+        return service.addEntry(createWaitlistEntryCommand);
+    }
+
+    @Operation(summary = "Remove patient's entry from waitlist")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Waitlist entry removed",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = WaitlistEntryDto.class))
+                    }),
+            @ApiResponse(responseCode = "404", description = "Waitlist entry not found",
+                    content = {
+                            @Content(mediaType = "application/json",
+                                    schema = @Schema(implementation = MedicalClinicExceptionDto.class))
+                    })
+    })
+    @DeleteMapping("/{entryId}")
+    public WaitlistEntryDto deleteEntryById(@PathVariable Long entryId) {
+        log.info("Received DELETE /waitlist/id request with id parameter={}", entryId);
+        return service.deleteEntryById(entryId);
+    }
+}
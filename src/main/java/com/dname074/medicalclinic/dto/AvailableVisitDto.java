@@ -0,0 +1,9 @@
+package com.dname074.medicalclinic.dto;
+
+import com.dname074.medicalclinic.model.Specialization;
+
+import java.time.LocalDateTime;
+
+public record AvailableVisitDto(Long id, Long doctorId, Specialization specialization,
+                                LocalDateTime startDate, LocalDateTime endDate) {
+}
@@ -0,0 +1,6 @@
+package com.dname074.medicalclinic.dto;
+
+import java.time.LocalDateTime;
+
+public record CalendarVisitDto(Long id, LocalDateTime startDate, LocalDateTime endDate, boolean booked) {
+}
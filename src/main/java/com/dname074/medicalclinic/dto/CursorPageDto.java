@@ -0,0 +1,6 @@
+package com.dname074.medicalclinic.dto;
+
+import java.util.List;
+
+public record CursorPageDto<T>(List<T> content, String nextCursor, int pageSize, Long totalElements) {
+}
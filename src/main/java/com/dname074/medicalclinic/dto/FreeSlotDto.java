@@ -0,0 +1,6 @@
+package com.dname074.medicalclinic.dto;
+
+import java.time.LocalDateTime;
+
+public record FreeSlotDto(Long doctorId, LocalDateTime startDate, LocalDateTime endDate) {
+}
@@ -0,0 +1,4 @@
+package com.dname074.medicalclinic.dto;
+
+public record InstitutionDoctorsDto(Long institutionId, int doctors, int added, int removed) {
+}
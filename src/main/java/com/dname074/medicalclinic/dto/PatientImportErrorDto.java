@@ -0,0 +1,6 @@
+package com.dname074.medicalclinic.dto;
+
+import java.util.List;
+
+public record PatientImportErrorDto(long line, List<String> messages) {
+}
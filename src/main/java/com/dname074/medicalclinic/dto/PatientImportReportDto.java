@@ -0,0 +1,6 @@
+package com.dname074.medicalclinic.dto;
+
+import java.util.List;
+
+public record PatientImportReportDto(int imported, int rejected, List<PatientImportErrorDto> errors) {
+}
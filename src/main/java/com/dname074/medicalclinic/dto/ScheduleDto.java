@@ -0,0 +1,7 @@
+package com.dname074.medicalclinic.dto;
+
+import java.time.LocalDateTime;
+
+public record ScheduleDto(Long doctorId, int createdVisits,
+                          LocalDateTime firstVisitStartDate, LocalDateTime lastVisitEndDate) {
+}
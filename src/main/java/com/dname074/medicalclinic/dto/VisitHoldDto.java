@@ -0,0 +1,6 @@
+package com.dname074.medicalclinic.dto;
+
+import java.time.LocalDateTime;
+
+public record VisitHoldDto(Long visitId, Long patientId, LocalDateTime expiresAt) {
+}
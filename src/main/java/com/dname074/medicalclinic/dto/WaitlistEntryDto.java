@@ -0,0 +1,9 @@
+package com.dname074.medicalclinic.dto;
+
+import com.dname074.medicalclinic.model.Specialization;
+
+import java.time.LocalDateTime;
+
+public record WaitlistEntryDto(Long id, Long patientId, Long doctorId, Specialization specialization,
+                               int priority, LocalDateTime createdAt) {
+}
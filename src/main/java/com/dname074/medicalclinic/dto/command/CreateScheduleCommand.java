@@ -0,0 +1,28 @@
+package com.dname074.medicalclinic.dto.command;
+
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+public record CreateScheduleCommand(
+        @NotNull
+        @FutureOrPresent
+        LocalDate startDate,
+        @NotNull
+        LocalDate endDate,
+        @NotEmpty
+        Set<DayOfWeek> days,
+        @NotNull
+        LocalTime startTime,
+        @NotNull
+        LocalTime endTime,
+        @NotNull
+        @Min(15)
+        Integer visitLength) {
+}
@@ -0,0 +1,17 @@
+package com.dname074.medicalclinic.dto.command;
+
+import com.dname074.medicalclinic.model.Specialization;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record CreateWaitlistEntryCommand(
+        @NotNull
+        Long patientId,
+        Long doctorId,
+        Specialization specialization,
+        @NotNull
+        @Min(0)
+        @Max(10)
+        Integer priority) {
+}
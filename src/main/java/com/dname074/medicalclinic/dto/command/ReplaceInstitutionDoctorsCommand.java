@@ -0,0 +1,10 @@
+package com.dname074.medicalclinic.dto.command;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Set;
+
+public record ReplaceInstitutionDoctorsCommand(
+        @NotNull
+        Set<@NotNull Long> doctorIds) {
+}
@@ -3,6 +3,7 @@ package com.dname074.medicalclinic.exception;
 import com.dname074.medicalclinic.dto.MedicalClinicExceptionDto;
 import com.dname074.medicalclinic.dto.ValidationExceptionDto;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -25,6 +26,13 @@ public class MedicalClinicExceptionHandler {
         return ResponseEntity.status(httpStatus).body(new MedicalClinicExceptionDto(exception.getMessage(), httpStatus));
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<MedicalClinicExceptionDto> handleOptimisticLockingFailureException(OptimisticLockingFailureException exception) {
+        exceptionLog(exception.getMessage());
+        HttpStatus httpStatus = HttpStatus.CONFLICT;
+        return ResponseEntity.status(httpStatus).body(new MedicalClinicExceptionDto("Dane zostały w międzyczasie zmienione, spróbuj ponownie", httpStatus));
+    }
+
     @ExceptionHandler(DateTimeParseException.class)
     public ResponseEntity<MedicalClinicExceptionDto> handleDateTimeParseException(DateTimeParseException exception) {
         exceptionLog(exception.getMessage());
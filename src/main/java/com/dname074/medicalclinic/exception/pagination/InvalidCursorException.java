@@ -0,0 +1,10 @@
+package com.dname074.medicalclinic.exception.pagination;
+
+import com.dname074.medicalclinic.exception.MedicalClinicException;
+import org.springframework.http.HttpStatus;
+
+public class InvalidCursorException extends MedicalClinicException {
+    public InvalidCursorException(String message) {
+        super(message, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,10 @@
+package com.dname074.medicalclinic.exception.waitlist;
+
+import com.dname074.medicalclinic.exception.MedicalClinicException;
+import org.springframework.http.HttpStatus;
+
+public class InvalidWaitlistEntryException extends MedicalClinicException {
+    public InvalidWaitlistEntryException(String message) {
+        super(message, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,10 @@
+package com.dname074.medicalclinic.exception.waitlist;
+
+import com.dname074.medicalclinic.exception.MedicalClinicException;
+import org.springframework.http.HttpStatus;
+
+public class WaitlistEntryExistsException extends MedicalClinicException {
+    public WaitlistEntryExistsException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,9 @@
+package com.dname074.medicalclinic.hold;
+
+import java.time.LocalDateTime;
+
+public record VisitHold(Long visitId, Long patientId, LocalDateTime expiresAt, long expiryTick) {
+    public boolean isActive(LocalDateTime now) {
+        return expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,110 @@
+package com.dname074.medicalclinic.hold;
+
+import com.dname074.medicalclinic.exception.visit.VisitAlreadyTakenException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+// blokady żyją tylko w pamięci - wygasanie obsługuje koło czasowe, w którym każdy tick przegląda jeden kubełek,
+// więc koszt sprzątania nie zależy od liczby aktywnych blokad; zegar dodatkowo odrzuca blokady przeterminowane między tickami
+@Component
+public class VisitHoldRegistry {
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 64;
+
+    private final Clock clock;
+    private final Duration ttl;
+    private final long ttlTicks;
+    private final Map<Long, VisitHold> holds = new ConcurrentHashMap<>();
+    // pacjent trzyma najwyżej jedną blokadę - nowa zwalnia poprzednią, więc jeden klient nie zablokuje wielu terminów
+    private final Map<Long, VisitHold> holdsByPatient = new ConcurrentHashMap<>();
+    private final List<Queue<VisitHold>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final AtomicLong tick = new AtomicLong();
+
+    public VisitHoldRegistry(Clock clock, @Value("${visit-hold.ttl:5m}") Duration ttl) {
+        this.clock = clock;
+        this.ttl = ttl;
+        this.ttlTicks = Math.max(1, Math.ceilDiv(ttl.toMillis(), TICK_MILLIS));
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    public VisitHold hold(Long visitId, Long patientId) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        long expiryTick = tick.get() + ttlTicks;
+        VisitHold newHold = new VisitHold(visitId, patientId, now.plus(ttl), expiryTick);
+        VisitHold hold = holds.compute(visitId, (id, current) ->
+                current != null && current.isActive(now) && !current.patientId().equals(patientId) ? current : newHold);
+        if (hold != newHold) {
+            throw new VisitAlreadyTakenException("Ten termin wizyty jest tymczasowo zarezerwowany przez innego pacjenta");
+        }
+        VisitHold previous = holdsByPatient.put(patientId, newHold);
+        if (previous != null && !previous.visitId().equals(visitId)) {
+            remove(previous);
+        }
+        wheel.get((int) (expiryTick % WHEEL_SIZE)).add(newHold);
+        return newHold;
+    }
+
+    public boolean isHeldByOther(Long visitId, Long patientId) {
+        VisitHold hold = holds.get(visitId);
+        return hold != null && !hold.patientId().equals(patientId) && hold.isActive(LocalDateTime.now(clock));
+    }
+
+    // po przypisaniu pacjenta blokada nie jest już potrzebna - termin chroni zajęty wiersz w bazie
+    public void releaseAfterCommit(Long visitId, Long patientId) {
+        Runnable release = () -> {
+            VisitHold hold = holds.get(visitId);
+            if (hold != null && hold.patientId().equals(patientId)) {
+                remove(hold);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release.run();
+            }
+        });
+    }
+
+    // blokada odnowiona lub zwolniona wcześniej to już inny obiekt w mapie - usuwanie porównuje referencje,
+    // bo VisitHold jest rekordem i jego equals porównuje pola
+    @Scheduled(fixedRate = TICK_MILLIS)
+    public void advance() {
+        long current = tick.incrementAndGet();
+        wheel.get((int) (current % WHEEL_SIZE)).removeIf(hold -> {
+            if (hold.expiryTick() > current) {
+                return false;
+            }
+            remove(hold);
+            return true;
+        });
+    }
+
+    private void remove(VisitHold hold) {
+        holds.computeIfPresent(hold.visitId(), (id, current) -> current == hold ? null : current);
+        holdsByPatient.computeIfPresent(hold.patientId(), (id, current) -> current == hold ? null : current);
+    }
+
+    int size() {
+        return holds.size();
+    }
+}
@@ -0,0 +1,9 @@
+package com.dname074.medicalclinic.index;
+
+import com.dname074.medicalclinic.model.Specialization;
+
+import java.time.LocalDateTime;
+
+public record AvailableVisit(Long id, Long doctorId, Specialization specialization,
+                             LocalDateTime startDate, LocalDateTime endDate) {
+}
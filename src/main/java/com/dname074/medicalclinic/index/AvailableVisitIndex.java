@@ -0,0 +1,207 @@
+package com.dname074.medicalclinic.index;
+
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.Visit;
+import com.dname074.medicalclinic.repository.DoctorRepository;
+import com.dname074.medicalclinic.repository.VisitRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AvailableVisitIndex {
+    private static final int MAX_CACHED_TOWNS = 1000;
+    private static final Comparator<AvailableVisit> VISIT_ORDER = Comparator.comparing(AvailableVisit::startDate)
+            .thenComparing(AvailableVisit::id);
+    private final VisitRepository visitRepository;
+    private final DoctorRepository doctorRepository;
+    private final Clock clock;
+    // wolne terminy pogrupowane po specjalizacji i dniu, w obrębie dnia posortowane po dacie rozpoczęcia
+    private final Map<Specialization, ConcurrentSkipListMap<LocalDate, NavigableSet<AvailableVisit>>> visits = createBuckets();
+    // wpis zapamiętany pod identyfikatorem wskazuje kubełek, w którym termin faktycznie leży - usunięcie nie zależy
+    // od bieżącej specjalizacji doktora, która mogła się zmienić od dodania terminu
+    private final Map<Long, AvailableVisit> visitsById = new ConcurrentHashMap<>();
+    // doktorzy placówek w danym mieście - generacja chroni przed zapisaniem wyniku zapytania sprzed zmiany przypisań;
+    // miasto pochodzi z parametru zapytania, więc cache ma limit, a miasta bez doktorów nie są zapamiętywane
+    private final Cache<String, Set<Long>> doctorIdsByTown = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_TOWNS)
+            .build();
+    private final AtomicLong townGeneration = new AtomicLong();
+
+    @PostConstruct
+    public void load() {
+        log.info("Process of loading available visits started");
+        visits.values().forEach(Map::clear);
+        visitsById.clear();
+        visitRepository.findAvailableVisitsStartingAfter(LocalDateTime.now(clock))
+                .forEach(this::add);
+        log.info("Process of loading available visits ended");
+    }
+
+    public List<AvailableVisit> find(Specialization specialization, Set<Long> doctorIds, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        if (!start.isBefore(to)) {
+            return List.of();
+        }
+        return visits.get(specialization)
+                .subMap(start.toLocalDate(), true, to.toLocalDate(), true)
+                .values().stream()
+                .flatMap(Collection::stream)
+                .filter(visit -> !visit.startDate().isBefore(start) && visit.startDate().isBefore(to))
+                .filter(visit -> doctorIds == null || doctorIds.contains(visit.doctorId()))
+                .toList();
+    }
+
+    public Set<Long> findDoctorIdsByTown(String town) {
+        String key = town.toLowerCase(Locale.ROOT);
+        Set<Long> doctorIds = doctorIdsByTown.getIfPresent(key);
+        if (doctorIds != null) {
+            return doctorIds;
+        }
+        long generation = townGeneration.get();
+        doctorIds = Set.copyOf(doctorRepository.findIdsByInstitutionTown(town));
+        if (!doctorIds.isEmpty() && townGeneration.get() == generation) {
+            doctorIdsByTown.asMap().putIfAbsent(key, doctorIds);
+            if (townGeneration.get() != generation) {
+                doctorIdsByTown.asMap().remove(key, doctorIds);
+            }
+        }
+        return doctorIds;
+    }
+
+    public void addAfterCommit(List<Visit> newVisits) {
+        List<AvailableVisit> availableVisits = newVisits.stream()
+                .map(AvailableVisitIndex::toAvailableVisit)
+                .toList();
+        afterCommit(() -> availableVisits.forEach(this::add));
+    }
+
+    public void removeAfterCommit(Visit visit) {
+        Long visitId = visit.getId();
+        afterCommit(() -> remove(visitId));
+    }
+
+    // zmiana specjalizacji i usunięcie doktora są rzadkie, więc przejście po wszystkich terminach jest tańsze
+    // niż utrzymywanie osobnego indeksu terminów po doktorze
+    public void changeSpecializationAfterCommit(Long doctorId, Specialization specialization) {
+        afterCommit(() -> doctorVisitIds(doctorId).forEach(id -> visitsById.computeIfPresent(id, (key, visit) -> {
+            removeFromBucket(visit);
+            AvailableVisit moved = new AvailableVisit(visit.id(), visit.doctorId(), specialization, visit.startDate(), visit.endDate());
+            addToBucket(moved);
+            return moved;
+        })));
+    }
+
+    public void removeDoctorAfterCommit(Long doctorId) {
+        afterCommit(() -> {
+            doctorVisitIds(doctorId).forEach(this::remove);
+            evictTowns();
+        });
+    }
+
+    // wywoływane przy każdej zmianie przypisań doktorów do placówek lub miasta placówki
+    public void evictTownsAfterCommit() {
+        afterCommit(this::evictTowns);
+    }
+
+    public void evictBefore(LocalDateTime date) {
+        visits.values().forEach(days -> {
+            NavigableMap<LocalDate, NavigableSet<AvailableVisit>> expiredDays = days.headMap(date.toLocalDate());
+            expiredDays.values().forEach(day -> day.forEach(visit -> visitsById.remove(visit.id(), visit)));
+            expiredDays.clear();
+        });
+    }
+
+    private void add(AvailableVisit visit) {
+        visitsById.compute(visit.id(), (id, current) -> {
+            if (current != null) {
+                removeFromBucket(current);
+            }
+            addToBucket(visit);
+            return visit;
+        });
+    }
+
+    private void remove(Long visitId) {
+        visitsById.computeIfPresent(visitId, (id, visit) -> {
+            removeFromBucket(visit);
+            return null;
+        });
+    }
+
+    private void addToBucket(AvailableVisit visit) {
+        visits.get(visit.specialization())
+                .computeIfAbsent(visit.startDate().toLocalDate(), day -> new ConcurrentSkipListSet<>(VISIT_ORDER))
+                .add(visit);
+    }
+
+    private void removeFromBucket(AvailableVisit visit) {
+        NavigableSet<AvailableVisit> day = visits.get(visit.specialization()).get(visit.startDate().toLocalDate());
+        if (day != null) {
+            day.remove(visit);
+        }
+    }
+
+    private List<Long> doctorVisitIds(Long doctorId) {
+        return visitsById.values().stream()
+                .filter(visit -> visit.doctorId().equals(doctorId))
+                .map(AvailableVisit::id)
+                .toList();
+    }
+
+    private void evictTowns() {
+        townGeneration.incrementAndGet();
+        doctorIdsByTown.invalidateAll();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static AvailableVisit toAvailableVisit(Visit visit) {
+        return new AvailableVisit(visit.getId(), visit.getDoctor().getId(), visit.getDoctor().getSpecialization(),
+                visit.getStartDate(), visit.getEndDate());
+    }
+
+    private static Map<Specialization, ConcurrentSkipListMap<LocalDate, NavigableSet<AvailableVisit>>> createBuckets() {
+        Map<Specialization, ConcurrentSkipListMap<LocalDate, NavigableSet<AvailableVisit>>> buckets = new EnumMap<>(Specialization.class);
+        for (Specialization specialization : Specialization.values()) {
+            buckets.put(specialization, new ConcurrentSkipListMap<>());
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,330 @@
+package com.dname074.medicalclinic.index;
+
+import com.dname074.medicalclinic.model.Visit;
+import com.dname074.medicalclinic.repository.VisitRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// godziny wizyt są wyrównane do kwadransa, więc dzień doktora to 96 bitów w dwóch longach - sprawdzenie kolizji
+// i szukanie wolnego terminu to operacje bitowe na maskach zamiast porównań dat. Każdy dzień ma trzy maski:
+// kwadranse zajęte przez jakąkolwiek wizytę, kwadranse wizyt zarezerwowanych przez pacjentów i pierwsze kwadranse wizyt
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DoctorVisitIndex {
+    private static final int SLOT_MINUTES = 15;
+    private static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    private static final int WORDS_PER_DAY = 2;
+    private static final int SCHEDULED = 0;
+    private static final int BOOKED = 1;
+    private static final int STARTS = 2;
+    private static final int PLANES = 3;
+    // początek wolnej wizyty oraz koniec wizyty - następny początek albo kwadrans bez wizyty
+    private static final WordSelector FREE_VISIT_START = (scheduled, booked, starts) -> starts & ~booked;
+    private static final WordSelector VISIT_BOUNDARY = (scheduled, booked, starts) -> starts | ~scheduled;
+
+    private final VisitRepository visitRepository;
+    private final Clock clock;
+    private final Map<Long, DoctorDays> schedules = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        log.info("Process of loading doctors' schedules started");
+        schedules.clear();
+        visitRepository.findScheduledVisitsEndingAfter(LocalDateTime.now(clock))
+                .forEach(visit -> {
+                    DoctorDays schedule = getSchedule(visit.doctorId());
+                    synchronized (schedule) {
+                        schedule.add(toSlot(visit.startDate()), toEndSlot(visit.endDate()), visit.booked());
+                    }
+                });
+        log.info("Process of loading doctors' schedules ended");
+    }
+
+    public boolean isFree(Long doctorId, LocalDateTime startDate, LocalDateTime endDate) {
+        DoctorDays schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return true;
+        }
+        synchronized (schedule) {
+            return schedule.isFree(toSlot(startDate), toEndSlot(endDate));
+        }
+    }
+
+    // pierwsza wizyta bez pacjenta zaczynająca się nie wcześniej niż after i trwająca co najmniej minutes
+    public Optional<LocalDateTime> findFirstFreeSlot(Long doctorId, LocalDateTime after, int minutes, LocalDateTime until) {
+        long slot = toEndSlot(after);
+        long length = Math.ceilDiv(minutes, SLOT_MINUTES);
+        long limit = toSlot(until);
+        DoctorDays schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            return Optional.empty();
+        }
+        synchronized (schedule) {
+            while (slot < limit) {
+                long start = schedule.nextSlot(slot, limit, FREE_VISIT_START);
+                if (start >= limit) {
+                    return Optional.empty();
+                }
+                if (schedule.nextSlot(start + 1, start + length, VISIT_BOUNDARY) == start + length) {
+                    return Optional.of(toDateTime(start));
+                }
+                slot = start + 1;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean reserve(Long doctorId, LocalDateTime startDate, LocalDateTime endDate) {
+        return reserveAll(doctorId, new long[]{toSlot(startDate), toEndSlot(endDate)});
+    }
+
+    public boolean reserveAll(Long doctorId, List<Visit> visits) {
+        long[] ranges = new long[visits.size() * 2];
+        for (int i = 0; i < visits.size(); i++) {
+            ranges[2 * i] = toSlot(visits.get(i).getStartDate());
+            ranges[2 * i + 1] = toEndSlot(visits.get(i).getEndDate());
+        }
+        return reserveAll(doctorId, ranges);
+    }
+
+    // wizyta przestaje być wolna - wycofanie transakcji przywraca ją do wyszukiwania wolnych terminów
+    public void book(Long doctorId, LocalDateTime startDate, LocalDateTime endDate) {
+        long from = toSlot(startDate);
+        long to = toEndSlot(endDate);
+        DoctorDays schedule = getSchedule(doctorId);
+        synchronized (schedule) {
+            schedule.set(from, to, BOOKED);
+        }
+        onRollback(() -> {
+            synchronized (schedule) {
+                schedule.clear(from, to, BOOKED);
+            }
+        });
+    }
+
+    // dni sprzed podanej daty nie mogą już dostać nowych wizyt, więc ich maski tylko zajmują pamięć
+    public void evictBefore(LocalDateTime date) {
+        long day = date.toLocalDate().toEpochDay();
+        schedules.values().forEach(schedule -> {
+            synchronized (schedule) {
+                schedule.clearBefore(day);
+            }
+        });
+    }
+
+    private boolean reserveAll(Long doctorId, long[] ranges) {
+        DoctorDays schedule = getSchedule(doctorId);
+        synchronized (schedule) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (!schedule.isFree(ranges[i], ranges[i + 1])) {
+                    for (int reserved = 0; reserved < i; reserved += 2) {
+                        schedule.remove(ranges[reserved], ranges[reserved + 1]);
+                    }
+                    return false;
+                }
+                schedule.add(ranges[i], ranges[i + 1], false);
+            }
+        }
+        onRollback(() -> {
+            synchronized (schedule) {
+                for (int i = 0; i < ranges.length; i += 2) {
+                    schedule.remove(ranges[i], ranges[i + 1]);
+                }
+            }
+        });
+        return true;
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private DoctorDays getSchedule(Long doctorId) {
+        return schedules.computeIfAbsent(doctorId, id -> new DoctorDays());
+    }
+
+    // numer kwadransa liczony od początku epoki - dzień to slot / 96, pozycja w masce to slot % 96
+    private static long toSlot(LocalDateTime date) {
+        return date.toLocalDate().toEpochDay() * SLOTS_PER_DAY + date.toLocalTime().toSecondOfDay() / (SLOT_MINUTES * 60);
+    }
+
+    private static long toEndSlot(LocalDateTime date) {
+        long slot = toSlot(date);
+        return date.toLocalTime().toNanoOfDay() % (SLOT_MINUTES * 60 * 1_000_000_000L) == 0 ? slot : slot + 1;
+    }
+
+    private static LocalDateTime toDateTime(long slot) {
+        return LocalDateTime.of(LocalDate.ofEpochDay(Math.floorDiv(slot, SLOTS_PER_DAY)), LocalTime.MIDNIGHT)
+                .plusMinutes(Math.floorMod(slot, SLOTS_PER_DAY) * (long) SLOT_MINUTES);
+    }
+
+    // maska bitów [from, to) z pozycji dnia przypadających na dane słowo
+    private static long wordMask(int from, int to, int word) {
+        int low = Math.max(from - word * Long.SIZE, 0);
+        int high = Math.min(to - word * Long.SIZE, Long.SIZE);
+        if (low >= high) {
+            return 0L;
+        }
+        return (high == Long.SIZE ? -1L : (1L << high) - 1) & (-1L << low);
+    }
+
+    @FunctionalInterface
+    private interface WordSelector {
+        long select(long scheduled, long booked, long starts);
+    }
+
+    // maski kolejnych dni leżą jedna za drugą w jednej tablicy long[] od firstDay - okno rośnie przy zapisie
+    // poza swój zakres i przesuwa się przy usuwaniu minionych dni, więc nie ma obiektu na każdy dzień
+    private static class DoctorDays {
+        private static final int LONGS_PER_DAY = PLANES * WORDS_PER_DAY;
+        private static final int INITIAL_DAYS = 32;
+
+        private long firstDay;
+        private long[] words = new long[0];
+
+        boolean isFree(long from, long to) {
+            for (long day = Math.floorDiv(from, SLOTS_PER_DAY); day * SLOTS_PER_DAY < to; day++) {
+                int start = dayPosition(from, day);
+                int end = dayPosition(to, day);
+                for (int word = 0; word < WORDS_PER_DAY; word++) {
+                    if ((word(day, SCHEDULED, word) & wordMask(start, end, word)) != 0) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        void add(long from, long to, boolean booked) {
+            set(from, to, SCHEDULED);
+            set(from, from + 1, STARTS);
+            if (booked) {
+                set(from, to, BOOKED);
+            }
+        }
+
+        // zakres należy do jednej wizyty, więc czyszczone są wszystkie jej maski
+        void remove(long from, long to) {
+            clear(from, to, SCHEDULED);
+            clear(from, to, BOOKED);
+            clear(from, to, STARTS);
+        }
+
+        void set(long from, long to, int plane) {
+            for (long day = Math.floorDiv(from, SLOTS_PER_DAY); day * SLOTS_PER_DAY < to; day++) {
+                int base = dayOffsetForWrite(day) * LONGS_PER_DAY + plane * WORDS_PER_DAY;
+                int start = dayPosition(from, day);
+                int end = dayPosition(to, day);
+                for (int word = 0; word < WORDS_PER_DAY; word++) {
+                    words[base + word] |= wordMask(start, end, word);
+                }
+            }
+        }
+
+        void clear(long from, long to, int plane) {
+            for (long day = Math.floorDiv(from, SLOTS_PER_DAY); day * SLOTS_PER_DAY < to; day++) {
+                long offset = day - firstDay;
+                if (offset < 0 || offset >= days()) {
+                    continue;
+                }
+                int base = (int) offset * LONGS_PER_DAY + plane * WORDS_PER_DAY;
+                int start = dayPosition(from, day);
+                int end = dayPosition(to, day);
+                for (int word = 0; word < WORDS_PER_DAY; word++) {
+                    words[base + word] &= ~wordMask(start, end, word);
+                }
+            }
+        }
+
+        void clearBefore(long day) {
+            long shift = day - firstDay;
+            if (shift <= 0 || words.length == 0) {
+                return;
+            }
+            if (shift >= days()) {
+                words = new long[0];
+                return;
+            }
+            int removed = (int) shift * LONGS_PER_DAY;
+            System.arraycopy(words, removed, words, 0, words.length - removed);
+            Arrays.fill(words, words.length - removed, words.length, 0L);
+            firstDay = day;
+        }
+
+        // pierwszy slot w [from, limit), którego bit wybiera selector - słowo maski sprawdzane jest jednym numberOfTrailingZeros
+        long nextSlot(long from, long limit, WordSelector selector) {
+            long slot = from;
+            while (slot < limit) {
+                long day = Math.floorDiv(slot, SLOTS_PER_DAY);
+                int start = dayPosition(slot, day);
+                for (int word = 0; word < WORDS_PER_DAY; word++) {
+                    long bits = selector.select(word(day, SCHEDULED, word), word(day, BOOKED, word), word(day, STARTS, word))
+                            & wordMask(start, SLOTS_PER_DAY, word);
+                    if (bits != 0) {
+                        return Math.min(day * SLOTS_PER_DAY + word * Long.SIZE + Long.numberOfTrailingZeros(bits), limit);
+                    }
+                }
+                slot = (day + 1) * SLOTS_PER_DAY;
+            }
+            return limit;
+        }
+
+        private long word(long day, int plane, int word) {
+            long offset = day - firstDay;
+            if (offset < 0 || offset >= days()) {
+                return 0L;
+            }
+            return words[(int) offset * LONGS_PER_DAY + plane * WORDS_PER_DAY + word];
+        }
+
+        private int days() {
+            return words.length / LONGS_PER_DAY;
+        }
+
+        private int dayOffsetForWrite(long day) {
+            if (words.length == 0) {
+                firstDay = day;
+                words = new long[INITIAL_DAYS * LONGS_PER_DAY];
+            } else if (day < firstDay) {
+                int added = Math.toIntExact(firstDay - day);
+                long[] grown = new long[words.length + added * LONGS_PER_DAY];
+                System.arraycopy(words, 0, grown, added * LONGS_PER_DAY, words.length);
+                words = grown;
+                firstDay = day;
+            } else if (day - firstDay >= days()) {
+                int needed = Math.toIntExact(day - firstDay + 1);
+                words = Arrays.copyOf(words, Math.max(needed, 2 * days()) * LONGS_PER_DAY);
+            }
+            return (int) (day - firstDay);
+        }
+
+        private static int dayPosition(long slot, long day) {
+            return Math.clamp(slot - day * SLOTS_PER_DAY, 0, SLOTS_PER_DAY);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.dname074.medicalclinic.index;
+
+import java.time.LocalDateTime;
+
+public record ScheduledVisit(Long doctorId, LocalDateTime startDate, LocalDateTime endDate, boolean booked) {
+}
@@ -0,0 +1,51 @@
+package com.dname074.medicalclinic.mapper;
+
+import com.dname074.medicalclinic.dto.CursorPageDto;
+import com.dname074.medicalclinic.exception.pagination.InvalidCursorException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+public class CursorMapper {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final long FIRST_PAGE_ID = 0L;
+
+    public Long toId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST_PAGE_ID;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidCursorException("Podany kursor stronicowania jest nieprawidłowy");
+        }
+    }
+
+    public String toCursor(Long id) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int toPageSize(int size) {
+        return Math.clamp(size, 1, MAX_PAGE_SIZE);
+    }
+
+    // pobierany jest jeden identyfikator więcej, żeby wiedzieć czy istnieje kolejna strona bez zapytania count
+    public Pageable toLookAheadRequest(int pageSize) {
+        return PageRequest.ofSize(pageSize + 1);
+    }
+
+    public <T> CursorPageDto<T> toCursorPage(List<Long> ids, int pageSize, Function<List<Long>, List<T>> contentLoader, Long totalElements) {
+        boolean hasNext = ids.size() > pageSize;
+        List<Long> pageIds = hasNext ? ids.subList(0, pageSize) : ids;
+        List<T> content = pageIds.isEmpty() ? List.of() : contentLoader.apply(pageIds);
+        return new CursorPageDto<>(content, hasNext ? toCursor(pageIds.getLast()) : null, pageSize, totalElements);
+    }
+}
@@ -2,6 +2,7 @@ package com.dname074.medicalclinic.mapper;
 
 import com.dname074.medicalclinic.dto.command.ChangePasswordCommand;
 import com.dname074.medicalclinic.dto.command.CreatePatientCommand;
+import com.dname074.medicalclinic.dto.simple.SimplePatientDto;
 import com.dname074.medicalclinic.model.Patient;
 import com.dname074.medicalclinic.dto.PatientDto;
 import org.mapstruct.Mapper;
@@ -13,6 +14,7 @@ public interface PatientMapper {
     @Mapping(target = "user.lastName", source = "lastName")
     Patient toEntity(CreatePatientCommand patientCommand);
     PatientDto toDto(Patient patient);
+    SimplePatientDto toSimpleDto(Patient patient);
 
     default String changePasswordCommandToEntity(ChangePasswordCommand passwordCommand) {
         if (passwordCommand == null) {
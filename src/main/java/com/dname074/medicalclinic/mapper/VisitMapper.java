@@ -1,7 +1,9 @@
 package com.dname074.medicalclinic.mapper;
 
+import com.dname074.medicalclinic.dto.AvailableVisitDto;
 import com.dname074.medicalclinic.dto.VisitDto;
 import com.dname074.medicalclinic.dto.command.CreateVisitCommand;
+import com.dname074.medicalclinic.index.AvailableVisit;
 import com.dname074.medicalclinic.model.Visit;
 import org.mapstruct.Mapper;
 
@@ -9,4 +11,5 @@ import org.mapstruct.Mapper;
 public interface VisitMapper {
     Visit toEntity(CreateVisitCommand createVisitCommand);
     VisitDto toDto(Visit visit);
+    AvailableVisitDto toDto(AvailableVisit availableVisit);
 }
@@ -0,0 +1,21 @@
+package com.dname074.medicalclinic.mapper;
+
+import com.dname074.medicalclinic.dto.WaitlistEntryDto;
+import com.dname074.medicalclinic.dto.command.CreateWaitlistEntryCommand;
+import com.dname074.medicalclinic.model.WaitlistEntry;
+import com.dname074.medicalclinic.waitlist.WaitlistTicket;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface WaitlistMapper {
+    WaitlistEntry toEntity(CreateWaitlistEntryCommand createWaitlistEntryCommand);
+
+    @Mapping(target = "patientId", source = "patient.id")
+    @Mapping(target = "doctorId", source = "doctor.id")
+    WaitlistEntryDto toDto(WaitlistEntry waitlistEntry);
+
+    @Mapping(target = "patientId", source = "patient.id")
+    @Mapping(target = "doctorId", source = "doctor.id")
+    WaitlistTicket toTicket(WaitlistEntry waitlistEntry);
+}
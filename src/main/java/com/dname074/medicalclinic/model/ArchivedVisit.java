@@ -0,0 +1,45 @@
+package com.dname074.medicalclinic.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// historia zajętych wizyt przeniesiona z tabeli visits - identyfikator zostaje ten sam, a zamiast relacji
+// trzymane są same klucze, więc archiwum nie blokuje usuwania pacjentów ani doktorów
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "visits_archive", indexes = {
+        @Index(name = "idx_visits_archive_patient_id", columnList = "patient_id"),
+        @Index(name = "idx_visits_archive_doctor_id_start_date", columnList = "doctor_id, startDate")
+})
+public class ArchivedVisit {
+    @Id
+    private Long id;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private Long doctorId;
+    private Long patientId;
+    private LocalDateTime archivedAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArchivedVisit archivedVisit = (ArchivedVisit) o;
+        return id != null && Objects.equals(id, archivedVisit.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
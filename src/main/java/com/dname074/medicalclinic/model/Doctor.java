@@ -1,14 +1,11 @@
 package com.dname074.medicalclinic.model;
 
 import com.dname074.medicalclinic.dto.command.CreateDoctorCommand;
-import com.dname074.medicalclinic.exception.institution.InstitutionExistsException;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToMany;
@@ -20,20 +17,25 @@ import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 @NoArgsConstructor
 @Getter
 @Setter
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "doctors", uniqueConstraints = {
         @UniqueConstraint(columnNames = "email")
 })
 public class Doctor {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "doctors_seq")
     private Long id;
     private String email;
     private String password;
@@ -43,7 +45,8 @@ public class Doctor {
     @Enumerated(EnumType.STRING)
     private Specialization specialization;
     @ManyToMany(mappedBy = "doctors", fetch = FetchType.LAZY)
-    private List<Institution> institutions;
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    private Set<Institution> institutions = new HashSet<>();
     @OneToMany(mappedBy = "doctor")
     private List<Visit> visits;
 
@@ -55,19 +58,6 @@ public class Doctor {
         this.specialization = createDoctorCommand.specialization();
     }
 
-    public void addInstitution(Institution newInstitution) {
-        boolean exists = institutions.stream()
-                        .anyMatch(institution -> institution.getName().equals(newInstitution.getName()));
-        if (exists) {
-            throw new InstitutionExistsException("Ten doktor jest już przypisany do podanej placówki");
-        }
-        institutions.add(newInstitution);
-    }
-
-    public void addVisit(Visit newVisit) {
-        visits.add(newVisit);
-    }
-
     @PreRemove
     public void removeInstitutionAssociations() {
         for (Institution institution : institutions) {
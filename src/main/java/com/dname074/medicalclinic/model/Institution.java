@@ -1,12 +1,9 @@
 package com.dname074.medicalclinic.model;
 
 import com.dname074.medicalclinic.dto.command.CreateInstitutionCommand;
-import com.dname074.medicalclinic.exception.doctor.DoctorAlreadyExistsException;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
@@ -17,9 +14,12 @@ import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import java.util.List;
+import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
 
 import static java.util.Objects.nonNull;
 
@@ -27,13 +27,14 @@ import static java.util.Objects.nonNull;
 @Getter
 @Setter
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "institutions",
         uniqueConstraints = {
                 @UniqueConstraint(columnNames = "name")
         })
 public class Institution {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "institutions_seq")
     private Long id;
     private String name;
     private String town;
@@ -41,11 +42,12 @@ public class Institution {
     private String street;
     private Integer placeNo;
     @ManyToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(name = "institution_doctor",
             joinColumns = @JoinColumn(name = "institution_id"),
             inverseJoinColumns = @JoinColumn(name = "doctor_id")
     )
-    private List<Doctor> doctors;
+    private Set<Doctor> doctors = new HashSet<>();
 
     public void update(CreateInstitutionCommand createInstitutionCommand) {
         this.name = createInstitutionCommand.name();
@@ -55,20 +57,6 @@ public class Institution {
         this.placeNo = createInstitutionCommand.placeNo();
     }
 
-    public void addDoctor(Doctor newDoctor) {
-        boolean exists = doctors.stream()
-                .anyMatch(doctor -> doctor.getEmail().equals(newDoctor.getEmail()));
-        if (exists) {
-            throw new DoctorAlreadyExistsException("Podany doktor należy już do tej placówki");
-        }
-        doctors.add(newDoctor);
-    }
-
-    public void removeDoctor(Doctor doctor) {
-        this.doctors.remove(doctor);
-        doctor.getInstitutions().remove(this);
-    }
-
     @PreRemove
     public void removeDoctorAssociations() {
         for (Doctor doctor : doctors) {
@@ -102,6 +90,8 @@ public class Institution {
         return id != null && Objects.equals(id, that.id);
     }
 
+    // stały hash - encja dodana do zbioru przed persist (kaskada ALL z Institution.doctors) dostaje id dopiero
+    // przy zapisie, a duplikaty przypisań wykrywa zapytanie exists po kluczu institution_doctor, nie zbiór
     @Override
     public int hashCode() {
         return getClass().hashCode();
@@ -4,8 +4,6 @@ import com.dname074.medicalclinic.dto.command.CreatePatientCommand;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
@@ -30,7 +28,7 @@ import java.util.Objects;
         })
 public class Patient {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "patients_seq")
     private Long id;
     private String email;
     private String password;
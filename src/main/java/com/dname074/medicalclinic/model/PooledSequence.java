@@ -0,0 +1,16 @@
+package com.dname074.medicalclinic.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// sekwencja z optymalizatorem pooled - rozmiar puli bierze się z konfiguracji, a nie z adnotacji na encji
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledSequence {
+    String name();
+}
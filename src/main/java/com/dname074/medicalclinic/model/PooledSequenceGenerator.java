@@ -0,0 +1,30 @@
+package com.dname074.medicalclinic.model;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+    // ustawiane przez spring.jpa.properties.medicalclinic.sequence.allocation_size, wspólne dla wszystkich sekwencji
+    public static final String ALLOCATION_SIZE = "medicalclinic.sequence.allocation_size";
+    private static final int DEFAULT_ALLOCATION_SIZE = 50;
+    private final String sequenceName;
+
+    public PooledSequenceGenerator(PooledSequence config, Member member, CustomIdGeneratorCreationContext context) {
+        this.sequenceName = config.name();
+    }
+
+    @Override
+    public void configure(GeneratorCreationContext creationContext, Properties parameters) {
+        ConfigurationService configurationService = creationContext.getServiceRegistry().getService(ConfigurationService.class);
+        int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE, configurationService.getSettings(), DEFAULT_ALLOCATION_SIZE);
+        parameters.setProperty(SEQUENCE_PARAM, sequenceName);
+        parameters.setProperty(INCREMENT_PARAM, String.valueOf(allocationSize));
+        super.configure(creationContext, parameters);
+    }
+}
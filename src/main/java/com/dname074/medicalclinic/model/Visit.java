@@ -3,13 +3,13 @@ package com.dname074.medicalclinic.model;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -22,14 +22,18 @@ import java.util.Objects;
 @Setter
 @Entity
 @Table(name = "visits", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {
+        @UniqueConstraint(name = "uk_visits_doctor_id_start_date_end_date", columnNames = {
+                "doctor_id",
                 "startDate",
                 "endDate"
         })
+}, indexes = {
+        @Index(name = "idx_visits_patient_id_id", columnList = "patient_id, id"),
+        @Index(name = "idx_visits_end_date", columnList = "endDate")
 })
 public class Visit {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence(name = "visits_seq")
     private Long id;
     private LocalDateTime startDate;
     private LocalDateTime endDate;
@@ -39,6 +43,8 @@ public class Visit {
     @ManyToOne(fetch = FetchType.LAZY, cascade = {CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
     @JoinColumn(name = "doctor_id", referencedColumnName = "id")
     private Doctor doctor;
+    @Version
+    private Long version;
 
     @Override
     public boolean equals(Object o) {
@@ -0,0 +1,54 @@
+package com.dname074.medicalclinic.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// wpis czeka albo na konkretnego doktora, albo na dowolnego doktora danej specjalizacji - nigdy na oba naraz
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "waitlist_entries", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_waitlist_entries_patient_id", columnNames = "patient_id")
+})
+public class WaitlistEntry {
+    @Id
+    @PooledSequence(name = "waitlist_entries_seq")
+    private Long id;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", referencedColumnName = "id")
+    private Patient patient;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "doctor_id", referencedColumnName = "id")
+    private Doctor doctor;
+    @Enumerated(EnumType.STRING)
+    private Specialization specialization;
+    private int priority;
+    private LocalDateTime createdAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WaitlistEntry waitlistEntry = (WaitlistEntry) o;
+        return id != null && Objects.equals(id, waitlistEntry.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -1,18 +1,38 @@
 package com.dname074.medicalclinic.repository;
 
 import com.dname074.medicalclinic.model.Doctor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Doctor> findByEmail(String email);
 
-    @Query("select distinct d from Doctor d left join fetch d.institutions join fetch d.user")
-    Page<Doctor> findAllWithUsers(Pageable pageable);
+    @Query("select d.id from Doctor d")
+    Page<Long> findAllIds(Pageable pageable);
+
+    @Query("select d.id from Doctor d where d.id > :afterId order by d.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select distinct d from Doctor d left join fetch d.institutions join fetch d.user where d.id in :ids")
+    List<Doctor> findAllWithUsersByIdIn(Collection<Long> ids);
+
+    @Query("select d.id from Doctor d where d.id in :ids")
+    Set<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @Query("select distinct d.id from Institution i join i.doctors d where lower(i.town) = lower(:town)")
+    List<Long> findIdsByInstitutionTown(String town);
 }
@@ -0,0 +1,76 @@
+package com.dname074.medicalclinic.repository;
+
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Institution;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// zapisy omijają Hibernate, więc ta klasa odpowiada też za usunięcie nieaktualnych kolekcji z cache'u drugiego poziomu
+@Repository
+@RequiredArgsConstructor
+public class InstitutionDoctorJdbcRepository {
+    private static final String INSTITUTION_DOCTORS_REGION = Institution.class.getName() + ".doctors";
+    private static final String DOCTOR_INSTITUTIONS_REGION = Doctor.class.getName() + ".institutions";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public Set<Long> findDoctorIds(Long institutionId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "select doctor_id from institution_doctor where institution_id = ?", Long.class, institutionId));
+    }
+
+    public boolean exists(Long institutionId, Long doctorId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists(select 1 from institution_doctor where institution_id = ? and doctor_id = ?)",
+                Boolean.class, institutionId, doctorId));
+    }
+
+    public void insertAll(Long institutionId, Collection<Long> doctorIds) {
+        jdbcTemplate.batchUpdate("insert into institution_doctor (institution_id, doctor_id) values (?, ?)",
+                toBatchArguments(institutionId, doctorIds));
+    }
+
+    public void deleteAll(Long institutionId, Collection<Long> doctorIds) {
+        jdbcTemplate.batchUpdate("delete from institution_doctor where institution_id = ? and doctor_id = ?",
+                toBatchArguments(institutionId, doctorIds));
+    }
+
+    // usunięcie od razu pozwala bieżącej transakcji odczytać nowe wiersze, a powtórka po commicie
+    // usuwa kolekcję, którą równoległe żądanie mogło w międzyczasie zapisać w starej postaci
+    public void evictCollections(Long institutionId, Collection<Long> doctorIds) {
+        List<Long> changedDoctorIds = List.copyOf(doctorIds);
+        evictCollectionData(institutionId, changedDoctorIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictCollectionData(institutionId, changedDoctorIds);
+                }
+            });
+        }
+    }
+
+    private void evictCollectionData(Long institutionId, List<Long> doctorIds) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictCollectionData(INSTITUTION_DOCTORS_REGION, institutionId);
+        doctorIds.forEach(doctorId -> cache.evictCollectionData(DOCTOR_INSTITUTIONS_REGION, doctorId));
+    }
+
+    private List<Object[]> toBatchArguments(Long institutionId, Collection<Long> doctorIds) {
+        return doctorIds.stream()
+                .map(doctorId -> new Object[]{institutionId, doctorId})
+                .toList();
+    }
+}
@@ -1,18 +1,30 @@
 package com.dname074.medicalclinic.repository;
 
 import com.dname074.medicalclinic.model.Institution;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InstitutionRepository extends JpaRepository<Institution, Long> {
     Optional<Institution> findByName(String name);
 
-    @Query("select distinct i from Institution i left join fetch i.doctors") // dzieki left join, nawet gdy instytucja nie ma doktora to zostanie zwrócona w wyniku
-    Page<Institution> findAllWithDoctors(Pageable pageable);
+    @Query("select i.id from Institution i")
+    Page<Long> findAllIds(Pageable pageable);
+
+    @Query("select i.id from Institution i where i.id > :afterId order by i.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select distinct i from Institution i left join fetch i.doctors where i.id in :ids") // dzieki left join, nawet gdy instytucja nie ma doktora to zostanie zwrócona w wyniku
+    List<Institution> findAllWithDoctorsByIdIn(Collection<Long> ids);
 }
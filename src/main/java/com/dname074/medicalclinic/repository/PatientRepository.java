@@ -1,18 +1,46 @@
 package com.dname074.medicalclinic.repository;
 
 import com.dname074.medicalclinic.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByEmail(String email);
 
-    @Query("select distinct p from Patient p join fetch p.user")
-    Page<Patient> findAllWithUsers(Pageable pageable);
+    @Query("select p.email from Patient p where p.email in :emails")
+    Set<String> findEmailsByEmailIn(Collection<String> emails);
+
+    @Query("select p.id from Patient p")
+    Page<Long> findAllIds(Pageable pageable);
+
+    @Query("select p.id from Patient p where p.id > :afterId order by p.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    // encje stron do odczytu trafiają do kontekstu bez kopii stanu do dirty checkingu
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select distinct p from Patient p join fetch p.user left join fetch p.visits v " +
+            "left join fetch v.doctor d left join fetch d.user where p.id in :ids")
+    List<Patient> findAllWithVisitsByIdIn(Collection<Long> ids);
+
+    // kursor tylko do przodu - sterownik pobiera wiersze paczkami, a eksport nie zapełnia cache'u drugiego poziomu
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select p from Patient p join fetch p.user order by p.id")
+    Stream<Patient> streamAllWithUsers();
 }
@@ -1,12 +1,25 @@
 package com.dname074.medicalclinic.repository;
 
+import com.dname074.medicalclinic.dto.UserDto;
 import com.dname074.medicalclinic.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByFirstNameAndLastName(String firstName, String lastName);
+
+    // projekcja bez encji - import sprawdza tylko pary imię i nazwisko, więc nie ładuje użytkowników do kontekstu
+    @Query("select new com.dname074.medicalclinic.dto.UserDto(u.id, u.firstName, u.lastName) from User u " +
+            "where u.firstName in :firstNames and u.lastName in :lastNames")
+    List<UserDto> findNamesByFirstNameInAndLastNameIn(Collection<String> firstNames, Collection<String> lastNames);
 }
@@ -0,0 +1,35 @@
+package com.dname074.medicalclinic.repository;
+
+import com.dname074.medicalclinic.archive.ExpiredVisit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// przenoszenie idzie paczkami identyfikatorów jako insert-select i delete, więc wiersze nie przechodzą przez Hibernate
+@Repository
+@RequiredArgsConstructor
+public class VisitArchiveJdbcRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<ExpiredVisit> findEndedBefore(LocalDateTime date, int limit) {
+        return jdbcTemplate.query("select id, patient_id from visits where end_date < :date order by id limit :limit",
+                new MapSqlParameterSource("date", date).addValue("limit", limit),
+                (resultSet, rowNum) -> new ExpiredVisit(resultSet.getLong("id"), resultSet.getObject("patient_id", Long.class)));
+    }
+
+    public int archiveBooked(Collection<Long> ids, LocalDateTime archivedAt) {
+        return jdbcTemplate.update("insert into visits_archive (id, start_date, end_date, doctor_id, patient_id, archived_at) " +
+                        "select id, start_date, end_date, doctor_id, patient_id, :archivedAt from visits " +
+                        "where id in (:ids) and patient_id is not null",
+                new MapSqlParameterSource("ids", ids).addValue("archivedAt", archivedAt));
+    }
+
+    public int deleteAll(Collection<Long> ids) {
+        return jdbcTemplate.update("delete from visits where id in (:ids)", new MapSqlParameterSource("ids", ids));
+    }
+}
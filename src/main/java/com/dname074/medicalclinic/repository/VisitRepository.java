@@ -1,15 +1,61 @@
 package com.dname074.medicalclinic.repository;
 
+import com.dname074.medicalclinic.dto.CalendarVisitDto;
+import com.dname074.medicalclinic.index.AvailableVisit;
+import com.dname074.medicalclinic.index.ScheduledVisit;
+import com.dname074.medicalclinic.model.Patient;
 import com.dname074.medicalclinic.model.Visit;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VisitRepository extends JpaRepository<Visit, Long> {
-    boolean existsByStartDateLessThanAndEndDateGreaterThan(LocalDateTime endDate, LocalDateTime startDate);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     Page<Visit> findByPatientId(Long patientId, Pageable pageable);
+
+    long countByPatientId(Long patientId);
+
+    @Query("select v.id from Visit v where v.patient.id = :patientId and v.id > :afterId order by v.id")
+    List<Long> findIdsByPatientIdAfter(Long patientId, Long afterId, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("select v from Visit v join fetch v.doctor d join fetch d.user left join fetch v.patient p " +
+            "left join fetch p.user where v.id in :ids")
+    List<Visit> findAllWithDoctorsAndPatientsByIdIn(Collection<Long> ids);
+
+    @Query("select v from Visit v join fetch v.doctor d join fetch d.user left join fetch v.patient p " +
+            "left join fetch p.user where v.id = :id")
+    Optional<Visit> findWithDoctorAndPatientById(Long id);
+
+    // zakres po startDate przy ustalonym lekarzu to skan przedziału indeksu uk_visits_doctor_id_start_date_end_date,
+    // a projekcja czyta tylko kolumny wizyty - pacjent nie jest dołączany, wystarczy klucz obcy
+    @Query("select new com.dname074.medicalclinic.dto.CalendarVisitDto(v.id, v.startDate, v.endDate, " +
+            "case when v.patient.id is not null then true else false end) " +
+            "from Visit v where v.doctor.id = :doctorId and v.startDate >= :from and v.startDate < :to order by v.startDate")
+    List<CalendarVisitDto> findCalendarByDoctorId(Long doctorId, LocalDateTime from, LocalDateTime to);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Visit v set v.patient = :patient, v.version = v.version + 1 where v.id = :id and v.patient is null")
+    int assignPatientIfFree(Long id, Patient patient);
+
+    @Query("select new com.dname074.medicalclinic.index.ScheduledVisit(v.doctor.id, v.startDate, v.endDate, " +
+            "case when v.patient.id is not null then true else false end) " +
+            "from Visit v where v.endDate > :date")
+    List<ScheduledVisit> findScheduledVisitsEndingAfter(LocalDateTime date);
+
+    @Query("select new com.dname074.medicalclinic.index.AvailableVisit(v.id, d.id, d.specialization, v.startDate, v.endDate) " +
+            "from Visit v join v.doctor d where v.patient is null and v.startDate > :date")
+    List<AvailableVisit> findAvailableVisitsStartingAfter(LocalDateTime date);
 }
@@ -0,0 +1,40 @@
+package com.dname074.medicalclinic.repository;
+
+import com.dname074.medicalclinic.model.WaitlistEntry;
+import com.dname074.medicalclinic.waitlist.WaitlistTicket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    boolean existsByPatientId(Long patientId);
+
+    @Query("select new com.dname074.medicalclinic.waitlist.WaitlistTicket(w.id, w.patient.id, d.id, w.specialization, w.priority) " +
+            "from WaitlistEntry w left join w.doctor d")
+    List<WaitlistTicket> findAllTickets();
+
+    @Query("select new com.dname074.medicalclinic.waitlist.WaitlistTicket(w.id, w.patient.id, d.id, w.specialization, w.priority) " +
+            "from WaitlistEntry w left join w.doctor d where w.patient.id = :patientId")
+    List<WaitlistTicket> findTicketsByPatientId(Long patientId);
+
+    @Query("select new com.dname074.medicalclinic.waitlist.WaitlistTicket(w.id, w.patient.id, w.doctor.id, w.specialization, w.priority) " +
+            "from WaitlistEntry w where w.doctor.id = :doctorId")
+    List<WaitlistTicket> findTicketsByDoctorId(Long doctorId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from WaitlistEntry w where w.patient.id = :patientId")
+    int deleteEntriesByPatientId(Long patientId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from WaitlistEntry w where w.doctor.id = :doctorId")
+    int deleteEntriesByDoctorId(Long doctorId);
+
+    // zwraca 0, gdy pacjent zrezygnował równolegle - wtedy termin dostaje następny wpis z kolejki
+    @Modifying(flushAutomatically = true)
+    @Query("delete from WaitlistEntry w where w.id = :id")
+    int deleteEntryById(Long id);
+}
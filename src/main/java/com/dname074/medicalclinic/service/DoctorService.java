@@ -1,40 +1,79 @@
 package com.dname074.medicalclinic.service;
 
+import com.dname074.medicalclinic.cache.CachedResponse;
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.PageDto;
 import com.dname074.medicalclinic.dto.command.CreateDoctorCommand;
 import com.dname074.medicalclinic.dto.DoctorDto;
 import com.dname074.medicalclinic.exception.doctor.DoctorAlreadyExistsException;
 import com.dname074.medicalclinic.exception.doctor.DoctorNotFoundException;
 import com.dname074.medicalclinic.exception.user.UserAlreadyExistsException;
+import com.dname074.medicalclinic.index.AvailableVisitIndex;
+import com.dname074.medicalclinic.mapper.CursorMapper;
 import com.dname074.medicalclinic.mapper.DoctorMapper;
 import com.dname074.medicalclinic.mapper.PageMapper;
 import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Institution;
+import com.dname074.medicalclinic.model.Specialization;
 import com.dname074.medicalclinic.model.User;
 import com.dname074.medicalclinic.repository.DoctorRepository;
 import com.dname074.medicalclinic.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
+import com.dname074.medicalclinic.waitlist.WaitlistQueue;
+import com.dname074.medicalclinic.waitlist.WaitlistTicket;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = "medicalclinic.service", histogram = true)
+@Transactional(readOnly = true)
 public class DoctorService {
     private final DoctorRepository doctorRepository;
     private final UserRepository userRepository;
     private final DoctorMapper doctorMapper;
     private final PageMapper pageMapper;
+    private final CursorMapper cursorMapper;
+    private final ResponseCache responseCache;
+    private final AvailableVisitIndex availableVisitIndex;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final WaitlistQueue waitlistQueue;
 
     public PageDto<DoctorDto> findAllDoctors(Pageable pageRequest) {
         log.info("Process of finding all doctors started");
-        PageDto<DoctorDto> page = pageMapper.toDoctorDto(doctorRepository.findAllWithUsers(pageRequest)
+        Page<Long> ids = doctorRepository.findAllIds(pageRequest);
+        Map<Long, Doctor> doctors = ids.isEmpty() ? Map.of() : findDoctorsByIds(ids.getContent());
+        PageDto<DoctorDto> page = pageMapper.toDoctorDto(ids.map(doctors::get)
                 .map(doctorMapper::toDto));
         log.info("Process of finding all doctors ended");
         return page;
     }
 
+    public CursorPageDto<DoctorDto> findAllDoctorsAfter(String cursor, int size, boolean withCount) {
+        log.info("Process of finding doctors by cursor started");
+        int pageSize = cursorMapper.toPageSize(size);
+        List<Long> ids = doctorRepository.findIdsAfter(cursorMapper.toId(cursor), cursorMapper.toLookAheadRequest(pageSize));
+        CursorPageDto<DoctorDto> page = cursorMapper.toCursorPage(ids, pageSize, this::findDoctorDtosByIds,
+                withCount ? doctorRepository.count() : null);
+        log.info("Process of finding doctors by cursor ended");
+        return page;
+    }
+
     public DoctorDto getDoctorDtoById(Long id) {
         log.info("Process of finding doctor by id started");
         Doctor doctor = getDoctorById(id);
@@ -42,6 +81,13 @@ public class DoctorService {
         return doctorMapper.toDto(doctor);
     }
 
+    // trafienie w cache nie otwiera transakcji ani nie pobiera połączenia - przy braku wpisu
+    // ResponseCache wylicza odpowiedź we własnej transakcji tylko do odczytu
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CachedResponse getSerializedDoctorById(Long id) {
+        return responseCache.get(ResponseRegion.DOCTOR, id, () -> getDoctorDtoById(id));
+    }
+
     @Transactional
     public DoctorDto addDoctor(CreateDoctorCommand createDoctorCommand) {
         log.info("Process of adding new doctor started");
@@ -64,8 +110,13 @@ public class DoctorService {
     public DoctorDto updateDoctorById(Long doctorId, CreateDoctorCommand createDoctorCommand) {
         log.info("Process of updating existing doctor started");
         Doctor doctor = getDoctorById(doctorId);
+        Specialization previousSpecialization = doctor.getSpecialization();
         doctor.update(createDoctorCommand);
         doctorRepository.save(doctor);
+        if (doctor.getSpecialization() != previousSpecialization) {
+            availableVisitIndex.changeSpecializationAfterCommit(doctorId, doctor.getSpecialization());
+        }
+        evictResponses(doctor);
         log.info("Process of updating existing doctor ended");
         return doctorMapper.toDto(doctor);
     }
@@ -74,11 +125,39 @@ public class DoctorService {
     public DoctorDto deleteDoctorById(Long doctorId) {
         log.info("Process of deleting doctor started");
         Doctor doctor = getDoctorById(doctorId);
+        // wpisy czekające na tego doktora nie mają już na co czekać - znikają razem z nim
+        List<WaitlistTicket> tickets = waitlistEntryRepository.findTicketsByDoctorId(doctorId);
+        waitlistEntryRepository.deleteEntriesByDoctorId(doctorId);
+        tickets.forEach(waitlistQueue::removeAfterCommit);
         doctorRepository.delete(doctor);
+        availableVisitIndex.removeDoctorAfterCommit(doctorId);
+        evictResponses(doctor);
         log.info("Process of deleting doctor ended");
         return doctorMapper.toDto(doctor);
     }
 
+    private List<DoctorDto> findDoctorDtosByIds(List<Long> ids) {
+        Map<Long, Doctor> doctors = findDoctorsByIds(ids);
+        return ids.stream()
+                .map(doctors::get)
+                .map(doctorMapper::toDto)
+                .toList();
+    }
+
+    private Map<Long, Doctor> findDoctorsByIds(Collection<Long> ids) {
+        return doctorRepository.findAllWithUsersByIdIn(ids).stream()
+                .collect(Collectors.toMap(Doctor::getId, Function.identity()));
+    }
+
+    private void evictResponses(Doctor doctor) {
+        responseCache.evictAfterCommit(ResponseRegion.DOCTOR, List.of(doctor.getId()));
+        responseCache.evictAfterCommit(ResponseRegion.INSTITUTION, doctor.getInstitutions().stream()
+                .map(Institution::getId)
+                .toList());
+        // dane lekarza są zagnieżdżone w wizytach pacjentów, a zmiana lekarza jest na tyle rzadka, że czyścimy cały region
+        responseCache.evictAllAfterCommit(ResponseRegion.PATIENT);
+    }
+
     private Doctor getDoctorById(Long id) {
         return doctorRepository.findById(id)
                 .orElseThrow(() -> new DoctorNotFoundException("Nie znaleziono doktora o podanym id"));
@@ -1,43 +1,83 @@
 package com.dname074.medicalclinic.service;
 
+import com.dname074.medicalclinic.cache.CachedResponse;
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.PageDto;
 import com.dname074.medicalclinic.dto.command.CreateInstitutionCommand;
+import com.dname074.medicalclinic.dto.command.ReplaceInstitutionDoctorsCommand;
 import com.dname074.medicalclinic.dto.DoctorDto;
+import com.dname074.medicalclinic.dto.InstitutionDoctorsDto;
 import com.dname074.medicalclinic.dto.InstitutionDto;
+import com.dname074.medicalclinic.exception.doctor.DoctorAlreadyExistsException;
 import com.dname074.medicalclinic.exception.doctor.DoctorNotFoundException;
 import com.dname074.medicalclinic.exception.institution.InstitutionExistsException;
 import com.dname074.medicalclinic.exception.institution.InstitutionNotFoundException;
+import com.dname074.medicalclinic.index.AvailableVisitIndex;
+import com.dname074.medicalclinic.mapper.CursorMapper;
 import com.dname074.medicalclinic.mapper.DoctorMapper;
 import com.dname074.medicalclinic.mapper.InstitutionMapper;
 import com.dname074.medicalclinic.mapper.PageMapper;
 import com.dname074.medicalclinic.model.Doctor;
 import com.dname074.medicalclinic.model.Institution;
 import com.dname074.medicalclinic.repository.DoctorRepository;
+import com.dname074.medicalclinic.repository.InstitutionDoctorJdbcRepository;
 import com.dname074.medicalclinic.repository.InstitutionRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = "medicalclinic.service", histogram = true)
+@Transactional(readOnly = true)
 public class InstitutionService {
     private final InstitutionRepository institutionRepository;
     private final DoctorRepository doctorRepository;
+    private final InstitutionDoctorJdbcRepository institutionDoctorRepository;
     private final InstitutionMapper institutionMapper;
     private final DoctorMapper doctorMapper;
     private final PageMapper pageMapper;
+    private final CursorMapper cursorMapper;
+    private final ResponseCache responseCache;
+    private final AvailableVisitIndex availableVisitIndex;
 
     public PageDto<InstitutionDto> findAllInstitutions(Pageable pageRequest) {
         log.info("Process of finding institutions based on parameters started");
-        PageDto<InstitutionDto> page = pageMapper.toInstitutionDto(institutionRepository.findAllWithDoctors(pageRequest)
+        Page<Long> ids = institutionRepository.findAllIds(pageRequest);
+        Map<Long, Institution> institutions = ids.isEmpty() ? Map.of() : findInstitutionsByIds(ids.getContent());
+        PageDto<InstitutionDto> page = pageMapper.toInstitutionDto(ids.map(institutions::get)
                 .map(institutionMapper::toDto));
         log.info("Process finding institutions based on parameters ended");
         return page;
     }
 
+    public CursorPageDto<InstitutionDto> findAllInstitutionsAfter(String cursor, int size, boolean withCount) {
+        log.info("Process of finding institutions by cursor started");
+        int pageSize = cursorMapper.toPageSize(size);
+        List<Long> ids = institutionRepository.findIdsAfter(cursorMapper.toId(cursor), cursorMapper.toLookAheadRequest(pageSize));
+        CursorPageDto<InstitutionDto> page = cursorMapper.toCursorPage(ids, pageSize, this::findInstitutionDtosByIds,
+                withCount ? institutionRepository.count() : null);
+        log.info("Process of finding institutions by cursor ended");
+        return page;
+    }
+
     public InstitutionDto getInstitutionDtoById(Long institutionId) {
         log.info("Process of finding institution by id started");
         Institution institution = getInstitutionById(institutionId);
@@ -45,6 +85,11 @@ public class InstitutionService {
         return institutionMapper.toDto(institution);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CachedResponse getSerializedInstitutionById(Long institutionId) {
+        return responseCache.get(ResponseRegion.INSTITUTION, institutionId, () -> getInstitutionDtoById(institutionId));
+    }
+
     @Transactional
     public InstitutionDto addInstitution(CreateInstitutionCommand createInstitutionCommand) {
         log.info("Process of adding institution started");
@@ -63,6 +108,8 @@ public class InstitutionService {
         Institution institution = getInstitutionById(institutionId);
         institution.update(createInstitutionCommand);
         institutionRepository.save(institution);
+        availableVisitIndex.evictTownsAfterCommit();
+        evictResponses(institution);
         log.info("Process of updating institution ended");
         return institutionMapper.toDto(institution);
     }
@@ -70,21 +117,65 @@ public class InstitutionService {
     @Transactional
     public DoctorDto assignDoctorToInstitution(Long doctorId, Long institutionId) {
         log.info("Process of assigning doctor to institution started");
-        Institution institution = getInstitutionById(institutionId);
+        checkInstitutionExists(institutionId);
         Doctor doctor = getDoctorById(doctorId);
-        institution.addDoctor(doctor);
-        doctor.addInstitution(institution);
-        institutionRepository.save(institution);
-        doctorRepository.save(doctor);
+        // sprawdzenie i zapis idą bezpośrednio po kluczu tabeli łączącej, więc żadna z kolekcji nie jest ładowana
+        if (institutionDoctorRepository.exists(institutionId, doctorId)) {
+            throw new DoctorAlreadyExistsException("Podany doktor należy już do tej placówki");
+        }
+        try {
+            institutionDoctorRepository.insertAll(institutionId, List.of(doctorId));
+        } catch (DuplicateKeyException exception) {
+            throw new DoctorAlreadyExistsException("Podany doktor należy już do tej placówki");
+        }
+        institutionDoctorRepository.evictCollections(institutionId, List.of(doctorId));
+        availableVisitIndex.evictTownsAfterCommit();
+        evictResponses(institutionId, doctorId);
         log.info("Process of assigning doctor to institution ended");
         return doctorMapper.toDto(doctor);
     }
 
+    // różnica liczona na identyfikatorach z tabeli łączącej - żadna z kolekcji nie jest ładowana,
+    // a dodania i usunięcia idą do bazy jako dwa wsadowe polecenia zamiast osobnego żądania na lekarza
+    @Transactional
+    public InstitutionDoctorsDto replaceDoctors(Long institutionId, ReplaceInstitutionDoctorsCommand replaceInstitutionDoctorsCommand) {
+        log.info("Process of replacing institution's doctors started");
+        checkInstitutionExists(institutionId);
+        Set<Long> doctorIds = replaceInstitutionDoctorsCommand.doctorIds();
+        if (!doctorIds.isEmpty() && doctorRepository.findIdsByIdIn(doctorIds).size() != doctorIds.size()) {
+            throw new DoctorNotFoundException("Nie znaleziono doktora o podanym id");
+        }
+        Set<Long> currentDoctorIds = institutionDoctorRepository.findDoctorIds(institutionId);
+        List<Long> addedDoctorIds = doctorIds.stream()
+                .filter(doctorId -> !currentDoctorIds.contains(doctorId))
+                .toList();
+        List<Long> removedDoctorIds = currentDoctorIds.stream()
+                .filter(doctorId -> !doctorIds.contains(doctorId))
+                .toList();
+        try {
+            institutionDoctorRepository.insertAll(institutionId, addedDoctorIds);
+        } catch (DuplicateKeyException exception) {
+            // równoległa zmiana lekarzy tej placówki dodała już część przypisań - różnica jest nieaktualna
+            throw new DoctorAlreadyExistsException("Lekarze placówki zostali w międzyczasie zmienieni");
+        }
+        institutionDoctorRepository.deleteAll(institutionId, removedDoctorIds);
+        List<Long> changedDoctorIds = new ArrayList<>(addedDoctorIds);
+        changedDoctorIds.addAll(removedDoctorIds);
+        institutionDoctorRepository.evictCollections(institutionId, changedDoctorIds);
+        availableVisitIndex.evictTownsAfterCommit();
+        responseCache.evictAfterCommit(ResponseRegion.INSTITUTION, List.of(institutionId));
+        responseCache.evictAfterCommit(ResponseRegion.DOCTOR, changedDoctorIds);
+        log.info("Process of replacing institution's doctors ended");
+        return new InstitutionDoctorsDto(institutionId, doctorIds.size(), addedDoctorIds.size(), removedDoctorIds.size());
+    }
+
     @Transactional
     public InstitutionDto deleteInstitutionById(Long institutionId) {
         log.info("Process of deleting institution by id started");
         Institution institution = getInstitutionById(institutionId);
         institutionRepository.delete(institution);
+        availableVisitIndex.evictTownsAfterCommit();
+        evictResponses(institution);
         log.info("Process of deleting institution by id ended");
         return institutionMapper.toDto(institution);
     }
@@ -92,15 +183,47 @@ public class InstitutionService {
     @Transactional
     public DoctorDto removeDoctorFromInstitution(Long institutionId, Long doctorId) {
         log.info("Process of removing doctor from institution started");
-        Institution institution = getInstitutionById(institutionId);
+        checkInstitutionExists(institutionId);
         Doctor doctor = getDoctorById(doctorId);
-        institution.removeDoctor(doctor);
-        doctorRepository.save(doctor);
-        institutionRepository.save(institution);
+        institutionDoctorRepository.deleteAll(institutionId, List.of(doctorId));
+        institutionDoctorRepository.evictCollections(institutionId, List.of(doctorId));
+        availableVisitIndex.evictTownsAfterCommit();
+        evictResponses(institutionId, doctorId);
         log.info("Process of removing doctor from institution ended");
         return doctorMapper.toDto(doctor);
     }
 
+    private List<InstitutionDto> findInstitutionDtosByIds(List<Long> ids) {
+        Map<Long, Institution> institutions = findInstitutionsByIds(ids);
+        return ids.stream()
+                .map(institutions::get)
+                .map(institutionMapper::toDto)
+                .toList();
+    }
+
+    private Map<Long, Institution> findInstitutionsByIds(Collection<Long> ids) {
+        return institutionRepository.findAllWithDoctorsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Institution::getId, Function.identity()));
+    }
+
+    private void evictResponses(Institution institution) {
+        responseCache.evictAfterCommit(ResponseRegion.INSTITUTION, List.of(institution.getId()));
+        responseCache.evictAfterCommit(ResponseRegion.DOCTOR, institution.getDoctors().stream()
+                .map(Doctor::getId)
+                .toList());
+    }
+
+    private void evictResponses(Long institutionId, Long doctorId) {
+        responseCache.evictAfterCommit(ResponseRegion.INSTITUTION, List.of(institutionId));
+        responseCache.evictAfterCommit(ResponseRegion.DOCTOR, List.of(doctorId));
+    }
+
+    private void checkInstitutionExists(Long institutionId) {
+        if (!institutionRepository.existsById(institutionId)) {
+            throw new InstitutionNotFoundException("Nie znaleziono instytucji o podanym id");
+        }
+    }
+
     private Institution getInstitutionById(Long institutionId) {
         return institutionRepository.findById(institutionId)
                 .orElseThrow(() -> new InstitutionNotFoundException("Nie znaleziono instytucji o podanym id"));
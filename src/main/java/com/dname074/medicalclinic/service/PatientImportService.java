@@ -0,0 +1,252 @@
+package com.dname074.medicalclinic.service;
+
+import com.dname074.medicalclinic.dto.PatientImportErrorDto;
+import com.dname074.medicalclinic.dto.PatientImportReportDto;
+import com.dname074.medicalclinic.dto.command.CreatePatientCommand;
+import com.dname074.medicalclinic.mapper.PatientMapper;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.repository.PatientRepository;
+import com.dname074.medicalclinic.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Timed(value = "medicalclinic.service", histogram = true)
+public class PatientImportService {
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .build();
+
+    private final PatientRepository patientRepository;
+    private final UserRepository userRepository;
+    private final PatientMapper mapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    public PatientImportReportDto importPatientsFromNdjson(InputStream inputStream) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        return importPatients(new NdjsonRows(reader, objectMapper.readerFor(CreatePatientCommand.class)));
+    }
+
+    // wiersze dzieli parser CSV, więc pole w cudzysłowie może zawierać znak nowej linii, a numer wiersza
+    // pochodzi z pozycji parsera; nagłówek mapuje kolumny po nazwie niezależnie od kolejności i spacji
+    public PatientImportReportDto importPatientsFromCsv(InputStream inputStream) throws IOException {
+        try (MappingIterator<CreatePatientCommand> iterator = CSV_MAPPER.readerFor(CreatePatientCommand.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .with(CsvParser.Feature.TRIM_SPACES)
+                .with(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .readValues(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            return importPatients(new CsvRows(iterator));
+        }
+    }
+
+    // każda paczka ma własną transakcję i jedno zapytanie o zajęte emaile oraz osoby, więc błąd wiersza
+    // nie wycofuje wcześniejszych paczek, a sprawdzenie unikalności nie wymaga zapytania na każdy wiersz
+    private PatientImportReportDto importPatients(RowSource rows) throws IOException {
+        log.info("Process of importing patients started");
+        ImportErrors errors = new ImportErrors();
+        List<ImportRow> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        int imported = 0;
+        ParsedRow row;
+        while ((row = rows.next()) != null) {
+            if (row.command() == null) {
+                errors.add(new PatientImportErrorDto(row.line(), List.of("Wiersz ma nieprawidłowy format")));
+            } else if (isValid(row.line(), row.command(), errors)) {
+                chunk.add(new ImportRow(row.line(), row.command()));
+            }
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                imported += importChunk(chunk, errors);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += importChunk(chunk, errors);
+        }
+        log.info("Process of importing patients ended");
+        return new PatientImportReportDto(imported, errors.count(), errors.reported());
+    }
+
+    private boolean isValid(long line, CreatePatientCommand command, ImportErrors errors) {
+        Set<ConstraintViolation<CreatePatientCommand>> violations = validator.validate(command);
+        if (violations.isEmpty()) {
+            return true;
+        }
+        errors.add(new PatientImportErrorDto(line, violations.stream()
+                .map(violation -> violation.getPropertyPath() + " - " + violation.getMessage())
+                .sorted()
+                .toList()));
+        return false;
+    }
+
+    private int importChunk(List<ImportRow> rows, ImportErrors errors) {
+        List<PatientImportErrorDto> chunkErrors = new ArrayList<>();
+        try {
+            Integer saved = transactionTemplate.execute(status -> saveChunk(rows, chunkErrors));
+            chunkErrors.forEach(errors::add);
+            return saved == null ? 0 : saved;
+        } catch (DataIntegrityViolationException exception) {
+            // równoległe dodanie pacjenta między sprawdzeniem a zapisem wycofuje całą paczkę
+            log.warn("Chunk of imported patients rolled back: {}", exception.getMessage());
+            entityManager.clear();
+            rows.forEach(row -> errors.add(new PatientImportErrorDto(row.line(),
+                    List.of("Nie udało się zapisać pacjenta, dane zostały w międzyczasie zmienione"))));
+            return 0;
+        }
+    }
+
+    private int saveChunk(List<ImportRow> rows, List<PatientImportErrorDto> errors) {
+        Set<String> emails = new HashSet<>(patientRepository.findEmailsByEmailIn(rows.stream()
+                .map(row -> row.command().email())
+                .toList()));
+        Set<PersonName> names = userRepository.findNamesByFirstNameInAndLastNameIn(
+                        rows.stream().map(row -> row.command().firstName()).collect(Collectors.toSet()),
+                        rows.stream().map(row -> row.command().lastName()).collect(Collectors.toSet())).stream()
+                .map(user -> new PersonName(user.firstName(), user.lastName()))
+                .collect(Collectors.toCollection(HashSet::new));
+        List<Patient> patients = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            CreatePatientCommand command = row.command();
+            PersonName name = new PersonName(command.firstName(), command.lastName());
+            if (emails.contains(command.email())) {
+                errors.add(new PatientImportErrorDto(row.line(), List.of("Pacjent o podanym adresie email już istnieje w bazie danych")));
+            } else if (names.contains(name)) {
+                errors.add(new PatientImportErrorDto(row.line(), List.of("Ta osoba została już dodana do systemu")));
+            } else {
+                emails.add(command.email());
+                names.add(name);
+                patients.add(mapper.toEntity(command));
+            }
+        }
+        patientRepository.saveAll(patients);
+        patientRepository.flush();
+        entityManager.clear();
+        return patients.size();
+    }
+
+    private record ImportRow(long line, CreatePatientCommand command) {
+    }
+
+    // command == null oznacza wiersz, którego nie udało się odczytać
+    private record ParsedRow(long line, CreatePatientCommand command) {
+    }
+
+    private interface RowSource {
+        // null po ostatnim wierszu pliku
+        ParsedRow next() throws IOException;
+    }
+
+    // NDJSON ma z definicji jeden obiekt w wierszu, więc błędny wiersz nie wpływa na odczyt kolejnych
+    private static class NdjsonRows implements RowSource {
+        private final BufferedReader reader;
+        private final ObjectReader rowReader;
+        private long line;
+
+        NdjsonRows(BufferedReader reader, ObjectReader rowReader) {
+            this.reader = reader;
+            this.rowReader = rowReader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String row;
+            do {
+                row = reader.readLine();
+                if (row == null) {
+                    return null;
+                }
+                line++;
+            } while (row.isBlank());
+            try {
+                return new ParsedRow(line, rowReader.readValue(row));
+            } catch (JsonProcessingException exception) {
+                return new ParsedRow(line, null);
+            }
+        }
+    }
+
+    // po błędzie w wierszu MappingIterator pomija resztę tego rekordu i czyta dalej od następnego
+    private static class CsvRows implements RowSource {
+        private final MappingIterator<CreatePatientCommand> iterator;
+
+        CsvRows(MappingIterator<CreatePatientCommand> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            if (!iterator.hasNextValue()) {
+                return null;
+            }
+            long line = iterator.getCurrentLocation().getLineNr();
+            try {
+                return new ParsedRow(line, iterator.nextValue());
+            } catch (JsonProcessingException exception) {
+                return new ParsedRow(line, null);
+            }
+        }
+    }
+
+    // raport zawiera najwyżej MAX_REPORTED_ERRORS błędów z najniższymi numerami wierszy, pozostałe są tylko liczone
+    private static class ImportErrors {
+        private final PriorityQueue<PatientImportErrorDto> reported = new PriorityQueue<>(
+                Comparator.comparingLong(PatientImportErrorDto::line).reversed());
+        private int count;
+
+        void add(PatientImportErrorDto error) {
+            count++;
+            if (reported.size() < MAX_REPORTED_ERRORS) {
+                reported.add(error);
+            } else if (error.line() < reported.peek().line()) {
+                reported.poll();
+                reported.add(error);
+            }
+        }
+
+        int count() {
+            return count;
+        }
+
+        List<PatientImportErrorDto> reported() {
+            return reported.stream()
+                    .sorted(Comparator.comparingLong(PatientImportErrorDto::line))
+                    .toList();
+        }
+    }
+
+    private record PersonName(String firstName, String lastName) {
+    }
+}
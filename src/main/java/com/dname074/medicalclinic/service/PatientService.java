@@ -1,41 +1,88 @@
 package com.dname074.medicalclinic.service;
 
+import com.dname074.medicalclinic.cache.CachedResponse;
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.PageDto;
 import com.dname074.medicalclinic.exception.patient.PatientAlreadyExistsException;
 import com.dname074.medicalclinic.exception.patient.PatientNotFoundException;
 import com.dname074.medicalclinic.exception.user.UserAlreadyExistsException;
+import com.dname074.medicalclinic.mapper.CursorMapper;
 import com.dname074.medicalclinic.mapper.PageMapper;
 import com.dname074.medicalclinic.mapper.PatientMapper;
 import com.dname074.medicalclinic.dto.command.CreatePatientCommand;
 import com.dname074.medicalclinic.dto.command.ChangePasswordCommand;
 import com.dname074.medicalclinic.dto.PatientDto;
+import com.dname074.medicalclinic.dto.simple.SimplePatientDto;
 import com.dname074.medicalclinic.model.Patient;
 import com.dname074.medicalclinic.model.User;
 import com.dname074.medicalclinic.repository.PatientRepository;
 import com.dname074.medicalclinic.repository.UserRepository;
-import jakarta.transaction.Transactional;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
+import com.dname074.medicalclinic.waitlist.WaitlistQueue;
+import com.dname074.medicalclinic.waitlist.WaitlistTicket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = "medicalclinic.service", histogram = true)
+@Transactional(readOnly = true)
 public class PatientService {
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final PatientRepository patientRepository;
     private final UserRepository userRepository;
     private final PatientMapper mapper;
     private final PageMapper pageMapper;
+    private final CursorMapper cursorMapper;
+    private final ResponseCache responseCache;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final WaitlistQueue waitlistQueue;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
 
     public PageDto<PatientDto> findAll(Pageable pageRequest) {
         log.info("Process of finding patients by parameters started");
-        PageDto<PatientDto> page = pageMapper.toPatientDto(patientRepository.findAllWithUsers(pageRequest)
+        Page<Long> ids = patientRepository.findAllIds(pageRequest);
+        Map<Long, Patient> patients = ids.isEmpty() ? Map.of() : findPatientsByIds(ids.getContent());
+        PageDto<PatientDto> page = pageMapper.toPatientDto(ids.map(patients::get)
                 .map(mapper::toDto));
         log.info("Process of finding patients by parameters ended");
         return page;
     }
 
+    public CursorPageDto<PatientDto> findAllAfter(String cursor, int size, boolean withCount) {
+        log.info("Process of finding patients by cursor started");
+        int pageSize = cursorMapper.toPageSize(size);
+        List<Long> ids = patientRepository.findIdsAfter(cursorMapper.toId(cursor), cursorMapper.toLookAheadRequest(pageSize));
+        CursorPageDto<PatientDto> page = cursorMapper.toCursorPage(ids, pageSize, this::findPatientDtosByIds,
+                withCount ? patientRepository.count() : null);
+        log.info("Process of finding patients by cursor ended");
+        return page;
+    }
+
     public PatientDto getPatientDtoById(Long patientId) {
         log.info("Process of finding patient by id started");
         Patient patient = getPatientById(patientId);
@@ -43,6 +90,33 @@ public class PatientService {
         return mapper.toDto(patient);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CachedResponse getSerializedPatientById(Long patientId) {
+        return responseCache.get(ResponseRegion.PATIENT, patientId, () -> getPatientDtoById(patientId));
+    }
+
+    // zapis blokuje się, gdy klient nie nadąża z odbiorem, więc kursor bazy przesuwa się w tempie klienta;
+    // czyszczenie kontekstu co paczkę utrzymuje stałe zużycie pamięci niezależnie od liczby pacjentów
+    public long exportPatients(OutputStream outputStream) throws IOException {
+        log.info("Process of exporting patients started");
+        ObjectWriter writer = objectMapper.writerFor(SimplePatientDto.class);
+        long exported = 0;
+        try (Stream<Patient> patients = patientRepository.streamAllWithUsers()) {
+            Iterator<Patient> iterator = patients.iterator();
+            while (iterator.hasNext()) {
+                outputStream.write(writer.writeValueAsBytes(mapper.toSimpleDto(iterator.next())));
+                outputStream.write('\n');
+                if (++exported % EXPORT_CHUNK_SIZE == 0) {
+                    outputStream.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        outputStream.flush();
+        log.info("Process of exporting patients ended");
+        return exported;
+    }
+
     @Transactional
     public PatientDto addPatient(CreatePatientCommand createPatientCommand) {
         log.info("Process of adding new patient started");
@@ -67,6 +141,7 @@ public class PatientService {
         Patient patient = getPatientById(patientId);
         patient.update(createPatientCommand);
         patientRepository.save(patient);
+        responseCache.evictAfterCommit(ResponseRegion.PATIENT, List.of(patientId));
         log.info("Process of updating patient ended");
         return mapper.toDto(patient);
     }
@@ -75,7 +150,12 @@ public class PatientService {
     public PatientDto deletePatientById(Long patientId) {
         log.info("Process of deleting patient started");
         Patient patient = getPatientById(patientId);
+        // wpis na liście oczekujących trzyma klucz obcy do pacjenta, więc znika w tej samej transakcji przed nim
+        List<WaitlistTicket> tickets = waitlistEntryRepository.findTicketsByPatientId(patientId);
+        waitlistEntryRepository.deleteEntriesByPatientId(patientId);
+        tickets.forEach(waitlistQueue::removeAfterCommit);
         patientRepository.delete(patient);
+        responseCache.evictAfterCommit(ResponseRegion.PATIENT, List.of(patientId));
         log.info("Process of deleting patient ended");
         return mapper.toDto(patient);
     }
@@ -86,10 +166,24 @@ public class PatientService {
         Patient patient = getPatientById(patientId);
         patient.setPassword(mapper.changePasswordCommandToEntity(newPassword));
         patientRepository.save(patient);
+        responseCache.evictAfterCommit(ResponseRegion.PATIENT, List.of(patientId));
         log.info("Process of modifying patient's password ended");
         return mapper.toDto(patient);
     }
 
+    private List<PatientDto> findPatientDtosByIds(List<Long> ids) {
+        Map<Long, Patient> patients = findPatientsByIds(ids);
+        return ids.stream()
+                .map(patients::get)
+                .map(mapper::toDto)
+                .toList();
+    }
+
+    private Map<Long, Patient> findPatientsByIds(Collection<Long> ids) {
+        return patientRepository.findAllWithVisitsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Patient::getId, Function.identity()));
+    }
+
     private Patient getPatientById(Long patientId) {
         return patientRepository.findById(patientId)
                 .orElseThrow(() -> new PatientNotFoundException("Nie udało się znaleźć pacjenta o podanym id"));
@@ -1,41 +1,81 @@
 package com.dname074.medicalclinic.service;
 
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
+import com.dname074.medicalclinic.dto.AvailableVisitDto;
+import com.dname074.medicalclinic.dto.CalendarVisitDto;
+import com.dname074.medicalclinic.dto.CursorPageDto;
+import com.dname074.medicalclinic.dto.FreeSlotDto;
 import com.dname074.medicalclinic.dto.PageDto;
+import com.dname074.medicalclinic.dto.ScheduleDto;
 import com.dname074.medicalclinic.dto.VisitDto;
+import com.dname074.medicalclinic.dto.VisitHoldDto;
+import com.dname074.medicalclinic.dto.command.CreateScheduleCommand;
 import com.dname074.medicalclinic.dto.command.CreateVisitCommand;
 import com.dname074.medicalclinic.exception.doctor.DoctorNotFoundException;
 import com.dname074.medicalclinic.exception.patient.PatientNotFoundException;
+import com.dname074.medicalclinic.exception.visit.InvalidVisitException;
 import com.dname074.medicalclinic.exception.visit.VisitAlreadyTakenException;
 import com.dname074.medicalclinic.exception.visit.VisitExpiredException;
 import com.dname074.medicalclinic.exception.visit.VisitNotFoundException;
+import com.dname074.medicalclinic.hold.VisitHold;
+import com.dname074.medicalclinic.hold.VisitHoldRegistry;
+import com.dname074.medicalclinic.index.AvailableVisitIndex;
+import com.dname074.medicalclinic.index.DoctorVisitIndex;
+import com.dname074.medicalclinic.mapper.CursorMapper;
 import com.dname074.medicalclinic.mapper.PageMapper;
 import com.dname074.medicalclinic.mapper.VisitMapper;
 import com.dname074.medicalclinic.model.Doctor;
 import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.Specialization;
 import com.dname074.medicalclinic.model.Visit;
 import com.dname074.medicalclinic.repository.DoctorRepository;
 import com.dname074.medicalclinic.repository.PatientRepository;
 import com.dname074.medicalclinic.repository.VisitRepository;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
 import com.dname074.medicalclinic.validation.VisitValidator;
-import jakarta.transaction.Transactional;
+import com.dname074.medicalclinic.waitlist.WaitlistQueue;
+import com.dname074.medicalclinic.waitlist.WaitlistTicket;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = "medicalclinic.service", histogram = true)
+@Transactional(readOnly = true)
 public class VisitService {
+    private static final int FREE_SLOT_SEARCH_DAYS = 31;
+
     private final VisitRepository visitRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
     private final VisitMapper visitMapper;
     private final VisitValidator validator;
     private final PageMapper pageMapper;
+    private final CursorMapper cursorMapper;
+    private final DoctorVisitIndex doctorVisitIndex;
+    private final AvailableVisitIndex availableVisitIndex;
+    private final ResponseCache responseCache;
+    private final VisitHoldRegistry visitHoldRegistry;
+    private final WaitlistQueue waitlistQueue;
     private final Clock clock;
 
     public PageDto<VisitDto> getVisitsByPatientId(Long id, Pageable pageRequest) {
@@ -46,35 +86,207 @@ public class VisitService {
         return page;
     }
 
+    public CursorPageDto<VisitDto> getVisitsByPatientIdAfter(Long id, String cursor, int size, boolean withCount) {
+        log.info("Process of finding patient's visits by cursor started");
+        int pageSize = cursorMapper.toPageSize(size);
+        List<Long> ids = visitRepository.findIdsByPatientIdAfter(id, cursorMapper.toId(cursor), cursorMapper.toLookAheadRequest(pageSize));
+        CursorPageDto<VisitDto> page = cursorMapper.toCursorPage(ids, pageSize, this::findVisitDtosByIds,
+                withCount ? visitRepository.countByPatientId(id) : null);
+        log.info("Process of finding patient's visits by cursor ended");
+        return page;
+    }
+
+    public List<CalendarVisitDto> getDoctorCalendar(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        log.info("Process of finding doctor's calendar started");
+        validator.validateSearchRange(from, to);
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new DoctorNotFoundException("Nie znaleziono doktora o podanym id");
+        }
+        List<CalendarVisitDto> calendar = visitRepository.findCalendarByDoctorId(doctorId, from, to);
+        log.info("Process of finding doctor's calendar ended");
+        return calendar;
+    }
+
+    // wyszukiwanie idzie po indeksie w pamięci, więc nie zajmuje połączenia na czas całej metody
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<AvailableVisitDto> findAvailableVisits(Specialization specialization, String town, LocalDateTime from, LocalDateTime to) {
+        log.info("Process of finding available visits started");
+        validator.validateSearchRange(from, to);
+        Set<Long> doctorIds = town == null || town.isBlank() ? null : availableVisitIndex.findDoctorIdsByTown(town);
+        List<AvailableVisitDto> visits = availableVisitIndex.find(specialization, doctorIds, from, to).stream()
+                .map(visitMapper::toDto)
+                .toList();
+        log.info("Process of finding available visits ended");
+        return visits;
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public FreeSlotDto findFirstFreeSlot(Long doctorId, LocalDateTime after, int length) {
+        log.info("Process of finding doctor's first free slot started");
+        validator.validateSlotLength(length);
+        if (!doctorRepository.existsById(doctorId)) {
+            throw new DoctorNotFoundException("Nie znaleziono doktora o podanym id");
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime from = after == null || after.isBefore(now) ? now : after;
+        LocalDateTime startDate = doctorVisitIndex.findFirstFreeSlot(doctorId, from, length, from.plusDays(FREE_SLOT_SEARCH_DAYS))
+                .orElseThrow(() -> new VisitNotFoundException("Doktor nie ma wolnego terminu w ciągu " + FREE_SLOT_SEARCH_DAYS + " dni"));
+        log.info("Process of finding doctor's first free slot ended");
+        return new FreeSlotDto(doctorId, startDate, startDate.plusMinutes(length));
+    }
+
     @Transactional
     public VisitDto addAvailableVisit(CreateVisitCommand createVisitCommand) {
         log.info("Process of creating new visit started");
-        validator.validateVisitDate(createVisitCommand.startDate(), createVisitCommand.endDate());
+        validator.validateVisitDate(createVisitCommand.doctorId(), createVisitCommand.startDate(), createVisitCommand.endDate());
         Doctor doctor = doctorRepository.findById(createVisitCommand.doctorId())
                 .orElseThrow(() -> new DoctorNotFoundException("Nie znaleziono doktora o podanym id"));
+        if (!doctorVisitIndex.reserve(doctor.getId(), createVisitCommand.startDate(), createVisitCommand.endDate())) {
+            throw new InvalidVisitException("Data wizyty pokrywa się z już istniejącą");
+        }
         Visit visit = visitMapper.toEntity(createVisitCommand);
         visit.setDoctor(doctor);
-        doctor.addVisit(visit);
+        assignFromWaitlist(doctor, List.of(visit));
+        Visit savedVisit = visitRepository.save(visit);
+        if (savedVisit.getPatient() == null) {
+            availableVisitIndex.addAfterCommit(List.of(savedVisit));
+        }
         log.info("Process of creating new visit ended");
-        return visitMapper.toDto(visitRepository.save(visit));
+        return visitMapper.toDto(savedVisit);
+    }
+
+    @Transactional
+    public ScheduleDto addSchedule(Long doctorId, CreateScheduleCommand createScheduleCommand) {
+        log.info("Process of creating doctor's schedule started");
+        validator.validateSchedule(createScheduleCommand);
+        Doctor doctor = doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new DoctorNotFoundException("Nie znaleziono doktora o podanym id"));
+        List<Visit> visits = createScheduledVisits(createScheduleCommand);
+        if (visits.isEmpty()) {
+            throw new InvalidVisitException("Harmonogram nie zawiera żadnego terminu wizyty");
+        }
+        if (!doctorVisitIndex.reserveAll(doctor.getId(), visits)) {
+            throw new InvalidVisitException("Data wizyty pokrywa się z już istniejącą");
+        }
+        visits.forEach(visit -> visit.setDoctor(doctor));
+        assignFromWaitlist(doctor, visits);
+        visitRepository.saveAll(visits);
+        availableVisitIndex.addAfterCommit(visits.stream()
+                .filter(visit -> visit.getPatient() == null)
+                .toList());
+        log.info("Process of creating doctor's schedule ended");
+        return new ScheduleDto(doctor.getId(), visits.size(),
+                visits.getFirst().getStartDate(), visits.getLast().getEndDate());
+    }
+
+    // blokada sprawdzana jest tylko w pamięci - przegrywający wyścig o termin nie dochodzą do warunkowego update'u
+    public VisitHoldDto hold(Long visitId, Long patientId) {
+        log.info("Process of holding visit started");
+        if (visitHoldRegistry.isHeldByOther(visitId, patientId)) {
+            throw new VisitAlreadyTakenException("Ten termin wizyty jest tymczasowo zarezerwowany przez innego pacjenta");
+        }
+        Visit visit = visitRepository.findById(visitId)
+                .orElseThrow(() -> new VisitNotFoundException("Nie znaleziono terminu wizyty o podanym id"));
+        if (!patientRepository.existsById(patientId)) {
+            throw new PatientNotFoundException("Nie znaleziono pacjenta o podanym id");
+        }
+        validateBookable(visit);
+        VisitHold hold = visitHoldRegistry.hold(visitId, patientId);
+        log.info("Process of holding visit ended");
+        return new VisitHoldDto(hold.visitId(), hold.patientId(), hold.expiresAt());
     }
 
     @Transactional
     public VisitDto assign(Long visitId, Long patientId) {
         log.info("Process of assigning patient to visit started");
+        if (visitHoldRegistry.isHeldByOther(visitId, patientId)) {
+            throw new VisitAlreadyTakenException("Ten termin wizyty jest tymczasowo zarezerwowany przez innego pacjenta");
+        }
         Visit visit = visitRepository.findById(visitId)
                 .orElseThrow(() -> new VisitNotFoundException("Nie znaleziono terminu wizyty o podanym id"));
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new PatientNotFoundException("Nie znaleziono pacjenta o podanym id"));
+        validateBookable(visit);
+        // warunkowy update rozstrzyga wyścig o termin - wiersz z pustym pacjentem może zmienić tylko jedno żądanie
+        if (visitRepository.assignPatientIfFree(visitId, patient) == 0) {
+            throw new VisitAlreadyTakenException("Ten termin wizyty jest już zajęty");
+        }
+        Visit assignedVisit = visitRepository.findWithDoctorAndPatientById(visitId)
+                .orElseThrow(() -> new VisitNotFoundException("Nie znaleziono terminu wizyty o podanym id"));
+        availableVisitIndex.removeAfterCommit(assignedVisit);
+        doctorVisitIndex.book(assignedVisit.getDoctor().getId(), assignedVisit.getStartDate(), assignedVisit.getEndDate());
+        visitHoldRegistry.releaseAfterCommit(visitId, patientId);
+        responseCache.evictAfterCommit(ResponseRegion.PATIENT, List.of(patientId));
+        log.info("Process of assigning patient to visit ended");
+        return visitMapper.toDto(assignedVisit);
+    }
+
+    // nowe terminy trafiają najpierw do kolejki oczekujących - pobranie głowy kolejki kosztuje O(log n), a wpis znika
+    // z bazy w tej samej transakcji co przypisanie pacjenta, więc wycofanie przywraca go do kolejki
+    private void assignFromWaitlist(Doctor doctor, List<Visit> visits) {
+        List<Long> patientIds = new ArrayList<>();
+        for (Visit visit : visits) {
+            Optional<WaitlistTicket> ticket = pollWaitlist(doctor);
+            if (ticket.isEmpty()) {
+                break;
+            }
+            visit.setPatient(patientRepository.getReferenceById(ticket.get().patientId()));
+            doctorVisitIndex.book(doctor.getId(), visit.getStartDate(), visit.getEndDate());
+            patientIds.add(ticket.get().patientId());
+        }
+        if (!patientIds.isEmpty()) {
+            log.info("Assigned {} new visits to patients from waitlist", patientIds.size());
+            responseCache.evictAfterCommit(ResponseRegion.PATIENT, patientIds);
+        }
+    }
+
+    // wpis usunięty równolegle przez rezygnację pacjenta jest pomijany, a termin dostaje następny w kolejce
+    private Optional<WaitlistTicket> pollWaitlist(Doctor doctor) {
+        Optional<WaitlistTicket> ticket = waitlistQueue.poll(doctor.getId(), doctor.getSpecialization());
+        while (ticket.isPresent() && waitlistEntryRepository.deleteEntryById(ticket.get().id()) == 0) {
+            ticket = waitlistQueue.poll(doctor.getId(), doctor.getSpecialization());
+        }
+        return ticket;
+    }
+
+    private void validateBookable(Visit visit) {
         if (visit.getPatient() != null) {
             throw new VisitAlreadyTakenException("Ten termin wizyty jest już zajęty");
         }
         if (visit.getStartDate().isBefore(LocalDateTime.now(clock))) {
             throw new VisitExpiredException("Ten termin wizyty poprzedza aktualną datę i nie jest już dostępny");
         }
-        visit.setPatient(patient);
-        patient.addVisit(visit);
-        log.info("Process of assigning patient to visit ended");
-        return visitMapper.toDto(visitRepository.save(visit));
+    }
+
+    private List<VisitDto> findVisitDtosByIds(List<Long> ids) {
+        Map<Long, Visit> visits = visitRepository.findAllWithDoctorsAndPatientsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Visit::getId, Function.identity()));
+        return ids.stream()
+                .map(visits::get)
+                .map(visitMapper::toDto)
+                .toList();
+    }
+
+    private List<Visit> createScheduledVisits(CreateScheduleCommand createScheduleCommand) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Visit> visits = new ArrayList<>();
+        for (LocalDate date = createScheduleCommand.startDate(); !date.isAfter(createScheduleCommand.endDate()); date = date.plusDays(1)) {
+            if (!createScheduleCommand.days().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime startDate = date.atTime(createScheduleCommand.startTime());
+            LocalDateTime dayEnd = date.atTime(createScheduleCommand.endTime());
+            while (!startDate.plusMinutes(createScheduleCommand.visitLength()).isAfter(dayEnd)) {
+                LocalDateTime endDate = startDate.plusMinutes(createScheduleCommand.visitLength());
+                if (!startDate.isBefore(now)) {
+                    Visit visit = new Visit();
+                    visit.setStartDate(startDate);
+                    visit.setEndDate(endDate);
+                    visits.add(visit);
+                }
+                startDate = endDate;
+            }
+        }
+        return visits;
     }
 }
@@ -0,0 +1,80 @@
+package com.dname074.medicalclinic.service;
+
+import com.dname074.medicalclinic.dto.WaitlistEntryDto;
+import com.dname074.medicalclinic.dto.command.CreateWaitlistEntryCommand;
+import com.dname074.medicalclinic.exception.doctor.DoctorNotFoundException;
+import com.dname074.medicalclinic.exception.patient.PatientNotFoundException;
+import com.dname074.medicalclinic.exception.waitlist.InvalidWaitlistEntryException;
+import com.dname074.medicalclinic.exception.waitlist.WaitlistEntryExistsException;
+import com.dname074.medicalclinic.exception.waitlist.WaitlistEntryNotFoundException;
+import com.dname074.medicalclinic.mapper.WaitlistMapper;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.WaitlistEntry;
+import com.dname074.medicalclinic.repository.DoctorRepository;
+import com.dname074.medicalclinic.repository.PatientRepository;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
+import com.dname074.medicalclinic.waitlist.WaitlistQueue;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Timed(value = "medicalclinic.service", histogram = true)
+@Transactional(readOnly = true)
+public class WaitlistService {
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final PatientRepository patientRepository;
+    private final DoctorRepository doctorRepository;
+    private final WaitlistMapper waitlistMapper;
+    private final WaitlistQueue waitlistQueue;
+    private final Clock clock;
+
+    @Transactional
+    public WaitlistEntryDto addEntry(CreateWaitlistEntryCommand createWaitlistEntryCommand) {
+        log.info("Process of adding waitlist entry started");
+        if ((createWaitlistEntryCommand.doctorId() == null) == (createWaitlistEntryCommand.specialization() == null)) {
+            throw new InvalidWaitlistEntryException("Wpis na liście oczekujących musi wskazywać doktora albo specjalizację");
+        }
+        Patient patient = patientRepository.findById(createWaitlistEntryCommand.patientId())
+                .orElseThrow(() -> new PatientNotFoundException("Nie znaleziono pacjenta o podanym id"));
+        if (waitlistEntryRepository.existsByPatientId(patient.getId())) {
+            throw new WaitlistEntryExistsException("Pacjent oczekuje już na wizytę");
+        }
+        WaitlistEntry entry = waitlistMapper.toEntity(createWaitlistEntryCommand);
+        entry.setPatient(patient);
+        if (createWaitlistEntryCommand.doctorId() != null) {
+            Doctor doctor = doctorRepository.findById(createWaitlistEntryCommand.doctorId())
+                    .orElseThrow(() -> new DoctorNotFoundException("Nie znaleziono doktora o podanym id"));
+            entry.setDoctor(doctor);
+        }
+        entry.setCreatedAt(LocalDateTime.now(clock));
+        try {
+            waitlistEntryRepository.saveAndFlush(entry);
+        } catch (DataIntegrityViolationException exception) {
+            throw new WaitlistEntryExistsException("Pacjent oczekuje już na wizytę");
+        }
+        waitlistQueue.addAfterCommit(waitlistMapper.toTicket(entry));
+        log.info("Process of adding waitlist entry ended");
+        return waitlistMapper.toDto(entry);
+    }
+
+    @Transactional
+    public WaitlistEntryDto deleteEntryById(Long entryId) {
+        log.info("Process of deleting waitlist entry started");
+        WaitlistEntry entry = waitlistEntryRepository.findById(entryId)
+                .orElseThrow(() -> new WaitlistEntryNotFoundException("Nie znaleziono wpisu na liście oczekujących o podanym id"));
+        waitlistEntryRepository.delete(entry);
+        waitlistQueue.removeAfterCommit(waitlistMapper.toTicket(entry));
+        log.info("Process of deleting waitlist entry ended");
+        return waitlistMapper.toDto(entry);
+    }
+}
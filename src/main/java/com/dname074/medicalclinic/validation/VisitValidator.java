@@ -1,20 +1,30 @@
 package com.dname074.medicalclinic.validation;
 
+import com.dname074.medicalclinic.dto.command.CreateScheduleCommand;
 import com.dname074.medicalclinic.exception.visit.InvalidVisitException;
-import com.dname074.medicalclinic.repository.VisitRepository;
+import com.dname074.medicalclinic.index.DoctorVisitIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Component
 @RequiredArgsConstructor
 public class VisitValidator {
-    private final VisitRepository visitRepository;
+    private static final int MAX_SCHEDULED_VISITS = 10_000;
+    private static final int MAX_SEARCH_DAYS = 31;
+    private static final int MAX_SCHEDULE_DAYS = 366;
+    // indeks grafików trzyma maski dni od najwcześniejszego do najpóźniejszego terminu, więc daty i długość wizyt są ograniczone
+    private static final int MAX_BOOKING_DAYS = 731;
+    private static final int MAX_VISIT_HOURS = 24;
+    private final DoctorVisitIndex doctorVisitIndex;
     private final Clock clock;
 
-    public void validateVisitDate(LocalDateTime startDate, LocalDateTime endDate) {
+    public void validateVisitDate(Long doctorId, LocalDateTime startDate, LocalDateTime endDate) {
         if (startDate.isAfter(endDate)) {
             throw new InvalidVisitException("Data początkowa wizyty nie może być po dacie końcowej");
         }
@@ -27,8 +37,61 @@ public class VisitValidator {
         if (startDate.isBefore(LocalDateTime.now(clock))) {
             throw new InvalidVisitException("Data wizyty nie może poprzedzać aktualnej daty");
         }
-        if (visitRepository.existsByStartDateLessThanAndEndDateGreaterThan(endDate, startDate)) {
+        if (Duration.between(startDate, endDate).toHours() > MAX_VISIT_HOURS) {
+            throw new InvalidVisitException("Wizyta nie może trwać dłużej niż " + MAX_VISIT_HOURS + " godziny");
+        }
+        if (endDate.isAfter(LocalDateTime.now(clock).plusDays(MAX_BOOKING_DAYS))) {
+            throw new InvalidVisitException("Wizytę można dodać najwyżej " + MAX_BOOKING_DAYS + " dni naprzód");
+        }
+        if (!doctorVisitIndex.isFree(doctorId, startDate, endDate)) {
             throw new InvalidVisitException("Data wizyty pokrywa się z już istniejącą");
         }
     }
+
+    public void validateSearchRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new InvalidVisitException("Data początkowa wyszukiwania musi poprzedzać datę końcową");
+        }
+        if (Duration.between(from, to).toDays() > MAX_SEARCH_DAYS) {
+            throw new InvalidVisitException("Zakres wyszukiwania nie może przekraczać " + MAX_SEARCH_DAYS + " dni");
+        }
+    }
+
+    public void validateSlotLength(int length) {
+        if (length <= 0 || length % 15 != 0) {
+            throw new InvalidVisitException("Długość wizyty musi być dodatnią wielokrotnością kwadransa");
+        }
+    }
+
+    public void validateSchedule(CreateScheduleCommand createScheduleCommand) {
+        if (createScheduleCommand.startDate().isAfter(createScheduleCommand.endDate())) {
+            throw new InvalidVisitException("Data początkowa harmonogramu nie może być po dacie końcowej");
+        }
+        // zakres sprawdzany arytmetycznie, zanim datesUntil przejdzie po każdym dniu
+        if (ChronoUnit.DAYS.between(createScheduleCommand.startDate(), createScheduleCommand.endDate()) > MAX_SCHEDULE_DAYS) {
+            throw new InvalidVisitException("Harmonogram nie może obejmować więcej niż " + MAX_SCHEDULE_DAYS + " dni");
+        }
+        if (createScheduleCommand.endDate().isAfter(LocalDate.now(clock).plusDays(MAX_BOOKING_DAYS))) {
+            throw new InvalidVisitException("Wizytę można dodać najwyżej " + MAX_BOOKING_DAYS + " dni naprzód");
+        }
+        if (!createScheduleCommand.startTime().isBefore(createScheduleCommand.endTime())) {
+            throw new InvalidVisitException("Godzina rozpoczęcia przyjęć musi poprzedzać godzinę ich zakończenia");
+        }
+        if (createScheduleCommand.startTime().getMinute() % 15 != 0 || createScheduleCommand.endTime().getMinute() % 15 != 0 ||
+                createScheduleCommand.startTime().getSecond() != 0 || createScheduleCommand.endTime().getSecond() != 0 ||
+                createScheduleCommand.visitLength() % 15 != 0) {
+            throw new InvalidVisitException("Godziny wizyt muszą być w pełnym kwadransie godziny");
+        }
+        long visitsPerDay = Duration.between(createScheduleCommand.startTime(), createScheduleCommand.endTime()).toMinutes()
+                / createScheduleCommand.visitLength();
+        long days = createScheduleCommand.startDate().datesUntil(createScheduleCommand.endDate().plusDays(1))
+                .filter(date -> createScheduleCommand.days().contains(date.getDayOfWeek()))
+                .count();
+        if (visitsPerDay * days == 0) {
+            throw new InvalidVisitException("Harmonogram nie zawiera żadnego terminu wizyty");
+        }
+        if (visitsPerDay * days > MAX_SCHEDULED_VISITS) {
+            throw new InvalidVisitException("Harmonogram nie może zawierać więcej niż " + MAX_SCHEDULED_VISITS + " wizyt");
+        }
+    }
 }
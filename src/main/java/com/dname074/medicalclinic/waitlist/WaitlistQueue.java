@@ -0,0 +1,137 @@
+package com.dname074.medicalclinic.waitlist;
+
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+// kolejki uporządkowane po priorytecie (wyższy pierwszy), a przy równym po kolejności zapisu - zbiór drzewiasty
+// pozwala w O(log n) zarówno pobrać głowę kolejki, jak i usunąć dowolny wpis przy rezygnacji pacjenta
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WaitlistQueue {
+    private static final Comparator<WaitlistTicket> TICKET_ORDER = Comparator.comparingInt(WaitlistTicket::priority)
+            .reversed()
+            .thenComparing(WaitlistTicket::id);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final Map<Long, TreeSet<WaitlistTicket>> doctorQueues = new HashMap<>();
+    private final Map<Specialization, TreeSet<WaitlistTicket>> specializationQueues = new EnumMap<>(Specialization.class);
+
+    @PostConstruct
+    public void load() {
+        log.info("Process of loading waitlist started");
+        synchronized (this) {
+            doctorQueues.clear();
+            specializationQueues.clear();
+            waitlistEntryRepository.findAllTickets().forEach(this::add);
+        }
+        log.info("Process of loading waitlist ended");
+    }
+
+    // wpis czekający na doktora i wpis czekający na jego specjalizację konkurują o termin - wygrywa lepszy z dwóch głów
+    public Optional<WaitlistTicket> poll(Long doctorId, Specialization specialization) {
+        WaitlistTicket ticket;
+        synchronized (this) {
+            WaitlistTicket doctorHead = head(doctorQueues.get(doctorId));
+            WaitlistTicket specializationHead = head(specializationQueues.get(specialization));
+            ticket = doctorHead == null || (specializationHead != null && TICKET_ORDER.compare(specializationHead, doctorHead) < 0)
+                    ? specializationHead
+                    : doctorHead;
+            if (ticket == null) {
+                return Optional.empty();
+            }
+            remove(ticket);
+        }
+        restoreOnRollback(ticket);
+        return Optional.of(ticket);
+    }
+
+    public void addAfterCommit(WaitlistTicket ticket) {
+        afterCommit(() -> {
+            synchronized (this) {
+                add(ticket);
+            }
+        });
+    }
+
+    public void removeAfterCommit(WaitlistTicket ticket) {
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(ticket);
+            }
+        });
+    }
+
+    synchronized int size() {
+        return doctorQueues.values().stream().mapToInt(TreeSet::size).sum()
+                + specializationQueues.values().stream().mapToInt(TreeSet::size).sum();
+    }
+
+    private void add(WaitlistTicket ticket) {
+        queueOf(ticket).add(ticket);
+    }
+
+    private void remove(WaitlistTicket ticket) {
+        TreeSet<WaitlistTicket> queue = queueOf(ticket);
+        queue.remove(ticket);
+        if (queue.isEmpty()) {
+            if (ticket.doctorId() != null) {
+                doctorQueues.remove(ticket.doctorId());
+            } else {
+                specializationQueues.remove(ticket.specialization());
+            }
+        }
+    }
+
+    private TreeSet<WaitlistTicket> queueOf(WaitlistTicket ticket) {
+        return ticket.doctorId() != null
+                ? doctorQueues.computeIfAbsent(ticket.doctorId(), id -> new TreeSet<>(TICKET_ORDER))
+                : specializationQueues.computeIfAbsent(ticket.specialization(), key -> new TreeSet<>(TICKET_ORDER));
+    }
+
+    private void restoreOnRollback(WaitlistTicket ticket) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    synchronized (WaitlistQueue.this) {
+                        add(ticket);
+                    }
+                }
+            }
+        });
+    }
+
+    private static WaitlistTicket head(TreeSet<WaitlistTicket> queue) {
+        return queue == null || queue.isEmpty() ? null : queue.first();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,6 @@
+package com.dname074.medicalclinic.waitlist;
+
+import com.dname074.medicalclinic.model.Specialization;
+
+public record WaitlistTicket(Long id, Long patientId, Long doctorId, Specialization specialization, int priority) {
+}
@@ -0,0 +1,99 @@
+package com.dname074.medicalclinic.archive;
+
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
+import com.dname074.medicalclinic.index.AvailableVisitIndex;
+import com.dname074.medicalclinic.index.DoctorVisitIndex;
+import com.dname074.medicalclinic.repository.VisitArchiveJdbcRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class VisitArchiverTest {
+    VisitArchiveJdbcRepository visitArchiveRepository;
+    DoctorVisitIndex doctorVisitIndex;
+    AvailableVisitIndex availableVisitIndex;
+    ResponseCache responseCache;
+    PlatformTransactionManager transactionManager;
+    MeterRegistry meterRegistry;
+    VisitArchiver visitArchiver;
+    Clock clock = Clock.fixed(
+            LocalDateTime.of(2026, 2, 15, 12, 0, 0)
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant(),
+            ZoneId.systemDefault()
+    );
+
+    @BeforeEach
+    void setup() {
+        this.visitArchiveRepository = Mockito.mock(VisitArchiveJdbcRepository.class);
+        this.doctorVisitIndex = Mockito.mock(DoctorVisitIndex.class);
+        this.availableVisitIndex = Mockito.mock(AvailableVisitIndex.class);
+        this.responseCache = Mockito.mock(ResponseCache.class);
+        this.transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        this.meterRegistry = new SimpleMeterRegistry();
+        this.visitArchiver = new VisitArchiver(visitArchiveRepository, doctorVisitIndex, availableVisitIndex, responseCache,
+                transactionManager, meterRegistry, clock, Duration.ofDays(7), 2);
+    }
+
+    @Test
+    void archiveExpiredVisits_TwoChunksFound_BookedVisitsArchivedAndFreeDropped() {
+        // given
+        LocalDateTime endedBefore = LocalDateTime.of(2026, 2, 8, 12, 0);
+        LocalDateTime now = LocalDateTime.now(clock);
+        when(visitArchiveRepository.findEndedBefore(endedBefore, 2)).thenReturn(
+                List.of(new ExpiredVisit(1L, 1L), new ExpiredVisit(2L, null)),
+                List.of(new ExpiredVisit(3L, 3L))
+        );
+        when(visitArchiveRepository.archiveBooked(List.of(1L, 2L), now)).thenReturn(1);
+        when(visitArchiveRepository.deleteAll(List.of(1L, 2L))).thenReturn(2);
+        when(visitArchiveRepository.archiveBooked(List.of(3L), now)).thenReturn(1);
+        when(visitArchiveRepository.deleteAll(List.of(3L))).thenReturn(1);
+        // when
+        int result = visitArchiver.archiveExpiredVisits();
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(3, result),
+                () -> assertEquals(2.0, meterRegistry.get("medicalclinic.visits.archive").tag("result", "archived").counter().count()),
+                () -> assertEquals(1.0, meterRegistry.get("medicalclinic.visits.archive").tag("result", "dropped").counter().count())
+        );
+        verify(visitArchiveRepository, times(2)).findEndedBefore(endedBefore, 2);
+        verify(transactionManager, times(2)).commit(any());
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.PATIENT, List.of(1L));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.PATIENT, List.of(3L));
+        verify(doctorVisitIndex, times(1)).evictBefore(endedBefore);
+        verify(availableVisitIndex, times(1)).evictBefore(endedBefore);
+    }
+
+    @Test
+    void archiveExpiredVisits_NoExpiredVisits_NothingMoved() {
+        // given
+        LocalDateTime endedBefore = LocalDateTime.of(2026, 2, 8, 12, 0);
+        when(visitArchiveRepository.findEndedBefore(endedBefore, 2)).thenReturn(List.of());
+        // when
+        int result = visitArchiver.archiveExpiredVisits();
+        // then
+        assertEquals(0, result);
+        verify(visitArchiveRepository, never()).archiveBooked(anyList(), any());
+        verify(visitArchiveRepository, never()).deleteAll(anyList());
+        verify(responseCache, never()).evictAfterCommit(any(), anyList());
+    }
+}
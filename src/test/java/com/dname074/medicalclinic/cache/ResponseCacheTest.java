@@ -0,0 +1,142 @@
+package com.dname074.medicalclinic.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ResponseCacheTest {
+    ObjectMapper objectMapper;
+    PlatformTransactionManager transactionManager;
+    ResponseCache responseCache;
+
+    @BeforeEach
+    void setup() {
+        this.objectMapper = new ObjectMapper();
+        this.transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        this.responseCache = new ResponseCache(objectMapper, new SimpleMeterRegistry(), transactionManager, Duration.ofMinutes(10), 100);
+    }
+
+    @Test
+    void get_ResponseCached_LoaderCalledOnce() throws Exception {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        Map<String, String> response = Map.of("name", "Placówka");
+        // when
+        CachedResponse first = responseCache.get(ResponseRegion.INSTITUTION, 1L, () -> {
+            loads.incrementAndGet();
+            return response;
+        });
+        CachedResponse second = responseCache.get(ResponseRegion.INSTITUTION, 1L, () -> {
+            loads.incrementAndGet();
+            return response;
+        });
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, loads.get()),
+                () -> assertArrayEquals(objectMapper.writeValueAsBytes(response), first.body()),
+                () -> assertSame(first, second)
+        );
+    }
+
+    @Test
+    void get_ResponseCached_LoaderRunInSingleReadOnlyTransaction() {
+        // when
+        responseCache.get(ResponseRegion.DOCTOR, 1L, () -> Map.of("id", 1));
+        responseCache.get(ResponseRegion.DOCTOR, 1L, () -> Map.of("id", 1));
+        // then
+        verify(transactionManager, times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void get_SameContentInDifferentRegions_SameEtagReturned() {
+        // when
+        CachedResponse doctor = responseCache.get(ResponseRegion.DOCTOR, 1L, () -> Map.of("id", 1));
+        CachedResponse institution = responseCache.get(ResponseRegion.INSTITUTION, 1L, () -> Map.of("id", 1));
+        CachedResponse patient = responseCache.get(ResponseRegion.PATIENT, 1L, () -> Map.of("id", 2));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(doctor.etag(), institution.etag()),
+                () -> assertNotEquals(doctor.etag(), patient.etag()),
+                () -> assertTrue(doctor.etag().startsWith("\"") && doctor.etag().endsWith("\""))
+        );
+    }
+
+    @Test
+    void evictAfterCommit_NoTransaction_ResponseEvictedImmediately() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        responseCache.get(ResponseRegion.DOCTOR, 1L, loads::incrementAndGet);
+        responseCache.get(ResponseRegion.INSTITUTION, 1L, loads::incrementAndGet);
+        // when
+        responseCache.evictAfterCommit(ResponseRegion.DOCTOR, List.of(1L));
+        responseCache.get(ResponseRegion.DOCTOR, 1L, loads::incrementAndGet);
+        responseCache.get(ResponseRegion.INSTITUTION, 1L, loads::incrementAndGet);
+        // then
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void evictAllAfterCommit_NoTransaction_WholeRegionEvicted() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        responseCache.get(ResponseRegion.PATIENT, 1L, loads::incrementAndGet);
+        responseCache.get(ResponseRegion.PATIENT, 2L, loads::incrementAndGet);
+        responseCache.get(ResponseRegion.DOCTOR, 1L, loads::incrementAndGet);
+        // when
+        responseCache.evictAllAfterCommit(ResponseRegion.PATIENT);
+        responseCache.get(ResponseRegion.PATIENT, 1L, loads::incrementAndGet);
+        responseCache.get(ResponseRegion.PATIENT, 2L, loads::incrementAndGet);
+        responseCache.get(ResponseRegion.DOCTOR, 1L, loads::incrementAndGet);
+        // then
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void evictAllAfterCommit_LoadInProgress_StaleResponseNotServed() throws Exception {
+        // given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        Thread loader = new Thread(() -> responseCache.get(ResponseRegion.PATIENT, 1L, () -> {
+            loading.countDown();
+            awaitUninterruptibly(evicted);
+            return Map.of("name", "stara");
+        }));
+        loader.start();
+        loading.await();
+        // when
+        responseCache.evictAllAfterCommit(ResponseRegion.PATIENT);
+        evicted.countDown();
+        loader.join();
+        CachedResponse result = responseCache.get(ResponseRegion.PATIENT, 1L, () -> Map.of("name", "nowa"));
+        // then
+        assertArrayEquals(objectMapper.writeValueAsBytes(Map.of("name", "nowa")), result.body());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
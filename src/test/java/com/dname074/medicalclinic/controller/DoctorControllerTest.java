@@ -1,15 +1,22 @@
 package com.dname074.medicalclinic.controller;
 
+import com.dname074.medicalclinic.cache.CachedResponse;
+import com.dname074.medicalclinic.dto.CalendarVisitDto;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.DoctorDto;
+import com.dname074.medicalclinic.dto.FreeSlotDto;
 import com.dname074.medicalclinic.dto.PageDto;
+import com.dname074.medicalclinic.dto.ScheduleDto;
 import com.dname074.medicalclinic.dto.UserDto;
 import com.dname074.medicalclinic.dto.command.CreateDoctorCommand;
+import com.dname074.medicalclinic.dto.command.CreateScheduleCommand;
 import com.dname074.medicalclinic.exception.doctor.DoctorAlreadyExistsException;
 import com.dname074.medicalclinic.exception.doctor.DoctorNotFoundException;
 import com.dname074.medicalclinic.exception.user.UserAlreadyExistsException;
 import com.dname074.medicalclinic.mapper.PageMapper;
 import com.dname074.medicalclinic.model.Specialization;
 import com.dname074.medicalclinic.service.DoctorService;
+import com.dname074.medicalclinic.service.VisitService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,10 +31,17 @@ import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +52,8 @@ public class DoctorControllerTest {
     MockMvc mockMvc;
     @MockitoBean
     DoctorService service;
+    @MockitoBean
+    VisitService visitService;
     @Autowired
     ObjectMapper objectMapper;
     @Autowired
@@ -68,21 +84,59 @@ public class DoctorControllerTest {
         verifyNoMoreInteractions(service);
     }
 
+    @Test
+    void findAllDoctorsAfter_CursorGiven_CursorPageReturned() throws Exception {
+        // given
+        List<DoctorDto> doctors = List.of(createDoctor());
+        when(service.findAllDoctorsAfter("MQ", 1, true)).thenReturn(new CursorPageDto<>(doctors, "Mg", 1, 3L));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/doctors")
+                        .param("after", "MQ")
+                        .param("size", "1")
+                        .param("withCount", "true")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("Mg"))
+                .andExpect(jsonPath("$.pageSize").value(1))
+                .andExpect(jsonPath("$.totalElements").value(3));
+        verify(service, times(1)).findAllDoctorsAfter("MQ", 1, true);
+        verifyNoMoreInteractions(service);
+    }
+
     @Test
     void findDoctorById_DoctorFound_DoctorReturned() throws Exception {
         // given
         Long doctorId = 1L;
         DoctorDto doctorDto = createDoctor();
-        when(service.getDoctorDtoById(doctorId)).thenReturn(doctorDto);
+        when(service.getSerializedDoctorById(doctorId)).thenReturn(new CachedResponse(objectMapper.writeValueAsBytes(doctorDto), "\"abc\""));
         // when & then
         mockMvc.perform(MockMvcRequestBuilders.get("/doctors/{doctorId}", doctorId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc\""))
                 .andExpect(jsonPath("$.email").value("email@onet.pl"))
                 .andExpect(jsonPath("$.specialization").value("DERMATOLOGIST"))
                 .andExpect(jsonPath("$.user.id").value(1))
                 .andExpect(jsonPath("$.user.firstName").value("Jan"))
                 .andExpect(jsonPath("$.user.lastName").value("Kowalski"))
                 .andExpect(jsonPath("$.institutions").isEmpty());
-        verify(service,times(1)).getDoctorDtoById(1L);
+        verify(service,times(1)).getSerializedDoctorById(1L);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void findDoctorById_EtagMatches_304Returned() throws Exception {
+        // given
+        Long doctorId = 1L;
+        DoctorDto doctorDto = createDoctor();
+        when(service.getSerializedDoctorById(doctorId)).thenReturn(new CachedResponse(objectMapper.writeValueAsBytes(doctorDto), "\"abc\""));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/doctors/{doctorId}", doctorId)
+                        .header("If-None-Match", "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc\""))
+                .andExpect(content().string(""));
+        verify(service,times(1)).getSerializedDoctorById(1L);
         verifyNoMoreInteractions(service);
     }
 
@@ -90,13 +144,13 @@ public class DoctorControllerTest {
     void findDoctorById_DoctorNotFoundExceptionThrown_404Returned() throws Exception {
         // given
         Long doctorId = 1L;
-        when(service.getDoctorDtoById(doctorId)).thenThrow(new DoctorNotFoundException("Nie znaleziono doktora o podanym id"));
+        when(service.getSerializedDoctorById(doctorId)).thenThrow(new DoctorNotFoundException("Nie znaleziono doktora o podanym id"));
         // when & then
         mockMvc.perform(MockMvcRequestBuilders.get("/doctors/{doctorId}",doctorId))
                 .andDo(print())
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Nie znaleziono doktora o podanym id"));
-        verify(service,times(1)).getDoctorDtoById(1L);
+        verify(service,times(1)).getSerializedDoctorById(1L);
         verifyNoMoreInteractions(service);
     }
 
@@ -252,6 +306,86 @@ public class DoctorControllerTest {
         verifyNoInteractions(service);
     }
 
+    @Test
+    void getDoctorCalendar_RangeGiven_CalendarReturned() throws Exception {
+        // given
+        Long doctorId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 2, 1, 0, 0, 0);
+        when(visitService.getDoctorCalendar(doctorId, from, to)).thenReturn(List.of(new CalendarVisitDto(2L,
+                LocalDateTime.of(2030, 1, 7, 8, 0, 0), LocalDateTime.of(2030, 1, 7, 9, 0, 0), true)));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/doctors/{doctorId}/visits", doctorId)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[0].startDate").value("2030-01-07T08:00:00"))
+                .andExpect(jsonPath("$[0].booked").value(true))
+                .andExpect(jsonPath("$[0].patient").doesNotExist());
+        verify(visitService, times(1)).getDoctorCalendar(1L, from, to);
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void findFirstFreeSlot_LengthGiven_FreeSlotReturned() throws Exception {
+        // given
+        Long doctorId = 1L;
+        LocalDateTime after = LocalDateTime.of(2030, 1, 1, 8, 0, 0);
+        when(visitService.findFirstFreeSlot(doctorId, after, 30)).thenReturn(new FreeSlotDto(doctorId,
+                LocalDateTime.of(2030, 1, 1, 9, 0, 0), LocalDateTime.of(2030, 1, 1, 9, 30, 0)));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/doctors/{doctorId}/availability", doctorId)
+                        .param("after", "2030-01-01T08:00:00")
+                        .param("length", "30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.doctorId").value(1))
+                .andExpect(jsonPath("$.startDate").value("2030-01-01T09:00:00"))
+                .andExpect(jsonPath("$.endDate").value("2030-01-01T09:30:00"));
+        verify(visitService, times(1)).findFirstFreeSlot(1L, after, 30);
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void addSchedule_ScheduleCorrect_ScheduleReturned() throws Exception {
+        // given
+        Long doctorId = 1L;
+        CreateScheduleCommand createScheduleCommand = makeCreateScheduleCommand(Set.of(DayOfWeek.MONDAY));
+        ScheduleDto scheduleDto = new ScheduleDto(doctorId, 32,
+                LocalDateTime.of(2030, 1, 7, 8, 0, 0), LocalDateTime.of(2030, 1, 28, 16, 0, 0));
+        when(visitService.addSchedule(doctorId, createScheduleCommand)).thenReturn(scheduleDto);
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.post("/doctors/{doctorId}/schedule", doctorId)
+                        .content(objectMapper.writeValueAsString(createScheduleCommand))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.doctorId").value(1))
+                .andExpect(jsonPath("$.createdVisits").value(32))
+                .andExpect(jsonPath("$.firstVisitStartDate").value("2030-01-07T08:00:00"))
+                .andExpect(jsonPath("$.lastVisitEndDate").value("2030-01-28T16:00:00"));
+        verify(visitService, times(1)).addSchedule(1L, createScheduleCommand);
+        verifyNoMoreInteractions(visitService);
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void addSchedule_ArgumentsNotValid_400Returned() throws Exception {
+        Long doctorId = 1L;
+        CreateScheduleCommand createScheduleCommand = makeCreateScheduleCommand(Set.of());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/doctors/{doctorId}/schedule", doctorId)
+                        .content(objectMapper.writeValueAsString(createScheduleCommand))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(visitService, service);
+    }
+
+    private CreateScheduleCommand makeCreateScheduleCommand(Set<DayOfWeek> days) {
+        return new CreateScheduleCommand(LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31), days,
+                LocalTime.of(8, 0), LocalTime.of(16, 0), 60);
+    }
+
     private CreateDoctorCommand makeCreateDoctorCommand() {
         return new CreateDoctorCommand("email@onet.pl", "Jan", "Kowalski", "password123", Specialization.DERMATOLOGIST);
     }
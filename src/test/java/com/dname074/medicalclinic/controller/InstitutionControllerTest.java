@@ -1,5 +1,7 @@
 package com.dname074.medicalclinic.controller;
 
+import com.dname074.medicalclinic.cache.CachedResponse;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.DoctorDto;
 import com.dname074.medicalclinic.dto.InstitutionDto;
 import com.dname074.medicalclinic.dto.PageDto;
@@ -71,12 +73,29 @@ public class InstitutionControllerTest {
         verifyNoMoreInteractions(service);
     }
 
+    @Test
+    void findAllInstitutionsAfter_CursorGiven_CursorPageReturned() throws Exception {
+        // given
+        List<InstitutionDto> institutions = List.of(createInstitution());
+        when(service.findAllInstitutionsAfter("MQ", 20, false)).thenReturn(new CursorPageDto<>(institutions, null, 20, null));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/institutions")
+                        .param("after", "MQ")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.pageSize").value(20));
+        verify(service, times(1)).findAllInstitutionsAfter("MQ", 20, false);
+        verifyNoMoreInteractions(service);
+    }
+
     @Test
     void findInstitutionById_InstitutionFound_InstitutionDtoReturned() throws Exception {
         // given
         Long institutionId = 1L;
         InstitutionDto institutionDto = createInstitution();
-        when(service.getInstitutionDtoById(institutionId)).thenReturn(institutionDto);
+        when(service.getSerializedInstitutionById(institutionId)).thenReturn(new CachedResponse(objectMapper.writeValueAsBytes(institutionDto), "\"abc\""));
         // when & then
         mockMvc.perform(MockMvcRequestBuilders.get("/institutions/{institutionId}", institutionId))
                 .andExpect(jsonPath("$.id").value(1))
@@ -86,7 +105,7 @@ public class InstitutionControllerTest {
                 .andExpect(jsonPath("$.street").value("Szybka"))
                 .andExpect(jsonPath("$.placeNo").value(21))
                 .andExpect(jsonPath("$.doctors").isEmpty());
-        verify(service, times(1)).getInstitutionDtoById(1L);
+        verify(service, times(1)).getSerializedInstitutionById(1L);
         verifyNoMoreInteractions(service);
     }
 
@@ -94,12 +113,12 @@ public class InstitutionControllerTest {
     void findInstitutionById_InstitutionNotFoundExceptionThrown_404Returned() throws Exception {
         // given
         Long institutionId = 1L;
-        when(service.getInstitutionDtoById(institutionId)).thenThrow(new InstitutionNotFoundException("Nie znaleziono instytucji o podanym id"));
+        when(service.getSerializedInstitutionById(institutionId)).thenThrow(new InstitutionNotFoundException("Nie znaleziono instytucji o podanym id"));
         // when & then
         mockMvc.perform(MockMvcRequestBuilders.get("/institutions/{institutionId}", institutionId))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Nie znaleziono instytucji o podanym id"));
-        verify(service,  times(1)).getInstitutionDtoById(1L);
+        verify(service,  times(1)).getSerializedInstitutionById(1L);
         verifyNoMoreInteractions(service);
     }
 
@@ -1,6 +1,10 @@
 package com.dname074.medicalclinic.controller;
 
+import com.dname074.medicalclinic.cache.CachedResponse;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.PatientDto;
+import com.dname074.medicalclinic.dto.PatientImportErrorDto;
+import com.dname074.medicalclinic.dto.PatientImportReportDto;
 import com.dname074.medicalclinic.dto.UserDto;
 import com.dname074.medicalclinic.dto.command.ChangePasswordCommand;
 import com.dname074.medicalclinic.dto.command.CreatePatientCommand;
@@ -8,6 +12,7 @@ import com.dname074.medicalclinic.exception.patient.PatientAlreadyExistsExceptio
 import com.dname074.medicalclinic.exception.patient.PatientNotFoundException;
 import com.dname074.medicalclinic.exception.user.UserAlreadyExistsException;
 import com.dname074.medicalclinic.mapper.PageMapper;
+import com.dname074.medicalclinic.service.PatientImportService;
 import com.dname074.medicalclinic.service.PatientService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -21,15 +26,22 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -39,6 +51,8 @@ public class PatientControllerTest {
     MockMvc mockMvc;
     @MockitoBean
     PatientService service;
+    @MockitoBean
+    PatientImportService importService;
     @Autowired
     ObjectMapper objectMapper;
     @Autowired
@@ -70,14 +84,34 @@ public class PatientControllerTest {
         verifyNoMoreInteractions(service);
     }
 
+    @Test
+    void findAllAfter_CursorGiven_CursorPageReturned() throws Exception {
+        // given
+        List<PatientDto> patients = List.of(createPatientDto());
+        when(service.findAllAfter("MQ", 1, false)).thenReturn(new CursorPageDto<>(patients, "Mg", 1, null));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/patients")
+                        .param("after", "MQ")
+                        .param("size", "1")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("Mg"))
+                .andExpect(jsonPath("$.pageSize").value(1));
+        verify(service, times(1)).findAllAfter("MQ", 1, false);
+        verifyNoMoreInteractions(service);
+    }
+
     @Test
     void findPatientById_PatientFound_PatientReturned() throws Exception {
         // given
         Long patientId = 1L;
         PatientDto patientDto = createPatientDto();
-        when(service.getPatientDtoById(patientId)).thenReturn(patientDto);
+        when(service.getSerializedPatientById(patientId)).thenReturn(new CachedResponse(objectMapper.writeValueAsBytes(patientDto), "\"abc\""));
         // when & then
         mockMvc.perform(MockMvcRequestBuilders.get("/patients/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc\""))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.email").value("email@onet.pl"))
                 .andExpect(jsonPath("$.idCardNo").value("23"))
@@ -85,7 +119,62 @@ public class PatientControllerTest {
                 .andExpect(jsonPath("$.user.firstName").value("Jan"))
                 .andExpect(jsonPath("$.user.lastName").value("Kowalski"))
                 .andExpect(jsonPath("$.birthday").value("2000-01-02"));
-        verify(service, times(1)).getPatientDtoById(1L);
+        verify(service, times(1)).getSerializedPatientById(1L);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void exportPatients_PatientsExist_NdjsonStreamed() throws Exception {
+        // given
+        when(service.exportPatients(any())).thenAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+        // when
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/patients/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+        verify(service, times(1)).exportPatients(any());
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void importPatients_NdjsonBody_ReportReturned() throws Exception {
+        // given
+        when(importService.importPatientsFromNdjson(any())).thenReturn(new PatientImportReportDto(1, 1,
+                List.of(new PatientImportErrorDto(2L, List.of("Wiersz ma nieprawidłowy format")))));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.post("/patients/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\nnie-json\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].messages[0]").value("Wiersz ma nieprawidłowy format"));
+        verify(importService, times(1)).importPatientsFromNdjson(any());
+        verifyNoMoreInteractions(importService);
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void findPatientById_EtagMatches_304Returned() throws Exception {
+        // given
+        Long patientId = 1L;
+        PatientDto patientDto = createPatientDto();
+        when(service.getSerializedPatientById(patientId)).thenReturn(new CachedResponse(objectMapper.writeValueAsBytes(patientDto), "\"abc\""));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/patients/{patientId}", patientId)
+                        .header("If-None-Match", "\"abc\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(service, times(1)).getSerializedPatientById(1L);
         verifyNoMoreInteractions(service);
     }
 
@@ -93,12 +182,12 @@ public class PatientControllerTest {
     void findPatientById_PatientNotFound_404Returned() throws Exception {
         // given
         Long patientId = 1L;
-        when(service.getPatientDtoById(patientId)).thenThrow(new PatientNotFoundException("Nie udało się znaleźć pacjenta o podanym id"));
+        when(service.getSerializedPatientById(patientId)).thenThrow(new PatientNotFoundException("Nie udało się znaleźć pacjenta o podanym id"));
         // when & then
         mockMvc.perform(MockMvcRequestBuilders.get("/patients/{patientId}", patientId))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.message").value("Nie udało się znaleźć pacjenta o podanym id"));
-        verify(service, times(1)).getPatientDtoById(1L);
+        verify(service, times(1)).getSerializedPatientById(1L);
         verifyNoMoreInteractions(service);
     }
 
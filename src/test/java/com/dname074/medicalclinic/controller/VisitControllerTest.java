@@ -1,8 +1,11 @@
 package com.dname074.medicalclinic.controller;
 
+import com.dname074.medicalclinic.dto.AvailableVisitDto;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.PageDto;
 import com.dname074.medicalclinic.dto.UserDto;
 import com.dname074.medicalclinic.dto.VisitDto;
+import com.dname074.medicalclinic.dto.VisitHoldDto;
 import com.dname074.medicalclinic.dto.command.CreateVisitCommand;
 import com.dname074.medicalclinic.dto.simple.SimpleDoctorDto;
 import com.dname074.medicalclinic.dto.simple.SimplePatientDto;
@@ -83,6 +86,49 @@ public class VisitControllerTest {
         verifyNoMoreInteractions(service);
     }
 
+    @Test
+    void getVisitsByPatientIdAfter_CursorGiven_CursorPageReturned() throws Exception {
+        // given
+        Long patientId = 1L;
+        List<VisitDto> visits = List.of(createVisit());
+        when(service.getVisitsByPatientIdAfter(patientId, "MQ", 1, false)).thenReturn(new CursorPageDto<>(visits, "Mg", 1, null));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/visits/patients")
+                        .param("id", String.valueOf(patientId))
+                        .param("after", "MQ")
+                        .param("size", "1")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("Mg"))
+                .andExpect(jsonPath("$.pageSize").value(1));
+        verify(service, times(1)).getVisitsByPatientIdAfter(1L, "MQ", 1, false);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void findAvailableVisits_ParametersCorrect_VisitsReturned() throws Exception {
+        // given
+        LocalDateTime from = LocalDateTime.of(2027, 1, 4, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2027, 1, 11, 0, 0, 0);
+        AvailableVisitDto availableVisitDto = new AvailableVisitDto(1L, 2L, Specialization.CARDIOLOGIST,
+                LocalDateTime.of(2027, 1, 5, 10, 0, 0), LocalDateTime.of(2027, 1, 5, 10, 30, 0));
+        when(service.findAvailableVisits(Specialization.CARDIOLOGIST, "Warszawa", from, to)).thenReturn(List.of(availableVisitDto));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.get("/visits/available")
+                        .param("specialization", "CARDIOLOGIST")
+                        .param("town", "Warszawa")
+                        .param("from", "2027-01-04T00:00:00")
+                        .param("to", "2027-01-11T00:00:00")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].doctorId").value(2))
+                .andExpect(jsonPath("$[0].specialization").value("CARDIOLOGIST"));
+        verify(service, times(1)).findAvailableVisits(Specialization.CARDIOLOGIST, "Warszawa", from, to);
+        verifyNoMoreInteractions(service);
+    }
+
     @Test
     void addVisit_VisitNotFound_VisitDtoReturned() throws Exception {
         // given
@@ -151,6 +197,41 @@ public class VisitControllerTest {
         verifyNoMoreInteractions(service);
     }
 
+    @Test
+    void hold_VisitFree_201Returned() throws Exception {
+        // given
+        Long visitId = 1L;
+        Long patientId = 2L;
+        VisitHoldDto visitHoldDto = new VisitHoldDto(visitId, patientId, LocalDateTime.of(2027, 1, 1, 19, 5));
+        when(service.hold(visitId, patientId)).thenReturn(visitHoldDto);
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.post("/visits/{visitId}/hold", visitId)
+                        .param("patientId", "2"))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.visitId").value(1))
+                .andExpect(jsonPath("$.patientId").value(2))
+                .andExpect(jsonPath("$.expiresAt").value("2027-01-01T19:05:00"));
+        verify(service, times(1)).hold(1L, 2L);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void hold_VisitHeldByAnotherPatient_409Returned() throws Exception {
+        // given
+        Long visitId = 1L;
+        Long patientId = 2L;
+        when(service.hold(visitId, patientId)).thenThrow(new VisitAlreadyTakenException("Ten termin wizyty jest tymczasowo zarezerwowany przez innego pacjenta"));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.post("/visits/{visitId}/hold", visitId)
+                        .param("patientId", "2"))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Ten termin wizyty jest tymczasowo zarezerwowany przez innego pacjenta"));
+        verify(service, times(1)).hold(1L, 2L);
+        verifyNoMoreInteractions(service);
+    }
+
     @Test
     void assign_VisitFoundAndPatientFound_VisitDtoReturned() throws Exception {
         // given
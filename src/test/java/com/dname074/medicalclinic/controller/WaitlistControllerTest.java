@@ -0,0 +1,102 @@
+package com.dname074.medicalclinic.controller;
+
+import com.dname074.medicalclinic.dto.WaitlistEntryDto;
+import com.dname074.medicalclinic.dto.command.CreateWaitlistEntryCommand;
+import com.dname074.medicalclinic.exception.waitlist.WaitlistEntryExistsException;
+import com.dname074.medicalclinic.exception.waitlist.WaitlistEntryNotFoundException;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.service.WaitlistService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class WaitlistControllerTest {
+    @MockitoBean
+    WaitlistService service;
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void addEntry_CommandCorrect_201Returned() throws Exception {
+        // given
+        CreateWaitlistEntryCommand createWaitlistEntryCommand = new CreateWaitlistEntryCommand(1L, null, Specialization.SURGEON, 2);
+        when(service.addEntry(createWaitlistEntryCommand)).thenReturn(new WaitlistEntryDto(5L, 1L, null,
+                Specialization.SURGEON, 2, LocalDateTime.of(2027, 1, 1, 10, 0)));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.post("/waitlist")
+                        .content(objectMapper.writeValueAsString(createWaitlistEntryCommand))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(5))
+                .andExpect(jsonPath("$.patientId").value(1))
+                .andExpect(jsonPath("$.specialization").value("SURGEON"))
+                .andExpect(jsonPath("$.priority").value(2))
+                .andExpect(jsonPath("$.createdAt").value("2027-01-01T10:00:00"));
+        verify(service, times(1)).addEntry(createWaitlistEntryCommand);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void addEntry_PriorityMissing_400Returned() throws Exception {
+        // given
+        CreateWaitlistEntryCommand createWaitlistEntryCommand = new CreateWaitlistEntryCommand(1L, null, Specialization.SURGEON, null);
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.post("/waitlist")
+                        .content(objectMapper.writeValueAsString(createWaitlistEntryCommand))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void addEntry_WaitlistEntryExistsExceptionThrown_409Returned() throws Exception {
+        // given
+        CreateWaitlistEntryCommand createWaitlistEntryCommand = new CreateWaitlistEntryCommand(1L, 2L, null, 0);
+        when(service.addEntry(createWaitlistEntryCommand)).thenThrow(new WaitlistEntryExistsException("Pacjent oczekuje już na wizytę"));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.post("/waitlist")
+                        .content(objectMapper.writeValueAsString(createWaitlistEntryCommand))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Pacjent oczekuje już na wizytę"));
+        verify(service, times(1)).addEntry(createWaitlistEntryCommand);
+        verifyNoMoreInteractions(service);
+    }
+
+    @Test
+    void deleteEntryById_WaitlistEntryNotFoundExceptionThrown_404Returned() throws Exception {
+        // given
+        when(service.deleteEntryById(5L)).thenThrow(new WaitlistEntryNotFoundException("Nie znaleziono wpisu na liście oczekujących o podanym id"));
+        // when & then
+        mockMvc.perform(MockMvcRequestBuilders.delete("/waitlist/{entryId}", 5L))
+                .andDo(print())
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Nie znaleziono wpisu na liście oczekujących o podanym id"));
+        verify(service, times(1)).deleteEntryById(5L);
+        verifyNoMoreInteractions(service);
+    }
+}
@@ -0,0 +1,109 @@
+package com.dname074.medicalclinic.hold;
+
+import com.dname074.medicalclinic.exception.visit.VisitAlreadyTakenException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VisitHoldRegistryTest {
+    VisitHoldRegistry visitHoldRegistry;
+    Clock clock = Clock.fixed(
+            LocalDateTime.of(2026, 2, 15, 12, 0, 0)
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant(),
+            ZoneId.systemDefault()
+    );
+
+    @BeforeEach
+    void setup() {
+        this.visitHoldRegistry = new VisitHoldRegistry(clock, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void hold_VisitFree_HoldReturned() {
+        // when
+        VisitHold result = visitHoldRegistry.hold(1L, 1L);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1L, result.visitId()),
+                () -> assertEquals(1L, result.patientId()),
+                () -> assertEquals(LocalDateTime.of(2026, 2, 15, 12, 0, 2), result.expiresAt())
+        );
+        assertTrue(visitHoldRegistry.isHeldByOther(1L, 2L));
+        assertFalse(visitHoldRegistry.isHeldByOther(1L, 1L));
+    }
+
+    @Test
+    void hold_VisitHeldByAnotherPatient_VisitAlreadyTakenExceptionThrown() {
+        // given
+        visitHoldRegistry.hold(1L, 1L);
+        // when & then
+        VisitAlreadyTakenException exception = assertThrows(VisitAlreadyTakenException.class, () -> visitHoldRegistry.hold(1L, 2L));
+        assertEquals("Ten termin wizyty jest tymczasowo zarezerwowany przez innego pacjenta", exception.getMessage());
+        assertEquals(1, visitHoldRegistry.size());
+    }
+
+    @Test
+    void hold_VisitHeldBySamePatient_HoldRefreshed() {
+        // given
+        VisitHold first = visitHoldRegistry.hold(1L, 1L);
+        visitHoldRegistry.advance();
+        // when
+        VisitHold result = visitHoldRegistry.hold(1L, 1L);
+        visitHoldRegistry.advance();
+        // then
+        assertEquals(first.expiryTick() + 1, result.expiryTick());
+        assertTrue(visitHoldRegistry.isHeldByOther(1L, 2L));
+    }
+
+    @Test
+    void hold_PatientHoldsAnotherVisit_PreviousHoldReleased() {
+        // given
+        visitHoldRegistry.hold(1L, 1L);
+        // when
+        visitHoldRegistry.hold(2L, 1L);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, visitHoldRegistry.size()),
+                () -> assertFalse(visitHoldRegistry.isHeldByOther(1L, 2L)),
+                () -> assertTrue(visitHoldRegistry.isHeldByOther(2L, 2L))
+        );
+    }
+
+    @Test
+    void advance_HoldExpired_HoldRemoved() {
+        // given
+        visitHoldRegistry.hold(1L, 1L);
+        visitHoldRegistry.hold(2L, 1L);
+        // when
+        visitHoldRegistry.advance();
+        visitHoldRegistry.advance();
+        // then
+        assertEquals(0, visitHoldRegistry.size());
+        assertFalse(visitHoldRegistry.isHeldByOther(1L, 2L));
+    }
+
+    @Test
+    void releaseAfterCommit_NoTransaction_HoldReleasedImmediately() {
+        // given
+        visitHoldRegistry.hold(1L, 1L);
+        visitHoldRegistry.hold(2L, 2L);
+        // when
+        visitHoldRegistry.releaseAfterCommit(1L, 1L);
+        visitHoldRegistry.releaseAfterCommit(2L, 1L);
+        // then
+        assertEquals(1, visitHoldRegistry.size());
+        assertFalse(visitHoldRegistry.isHeldByOther(1L, 2L));
+        assertTrue(visitHoldRegistry.isHeldByOther(2L, 1L));
+    }
+}
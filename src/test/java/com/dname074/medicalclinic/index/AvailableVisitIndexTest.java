@@ -0,0 +1,211 @@
+package com.dname074.medicalclinic.index;
+
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.Visit;
+import com.dname074.medicalclinic.repository.DoctorRepository;
+import com.dname074.medicalclinic.repository.VisitRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+public class AvailableVisitIndexTest {
+    VisitRepository visitRepository;
+    DoctorRepository doctorRepository;
+    AvailableVisitIndex availableVisitIndex;
+    Clock clock = Clock.fixed(
+            LocalDateTime.of(2026, 2, 15, 12, 0, 0)
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant(),
+            ZoneId.systemDefault()
+    );
+
+    @BeforeEach
+    void setup() {
+        this.visitRepository = Mockito.mock(VisitRepository.class);
+        this.doctorRepository = Mockito.mock(DoctorRepository.class);
+        this.availableVisitIndex = new AvailableVisitIndex(visitRepository, doctorRepository, clock);
+    }
+
+    @Test
+    void load_AvailableVisitsFound_VisitsFoundBySpecializationAndDate() {
+        // given
+        LocalDateTime now = LocalDateTime.now(clock);
+        when(visitRepository.findAvailableVisitsStartingAfter(now)).thenReturn(List.of(
+                new AvailableVisit(1L, 1L, Specialization.CARDIOLOGIST, LocalDateTime.of(2026, 3, 2, 10, 0), LocalDateTime.of(2026, 3, 2, 11, 0)),
+                new AvailableVisit(2L, 1L, Specialization.CARDIOLOGIST, LocalDateTime.of(2026, 3, 2, 8, 0), LocalDateTime.of(2026, 3, 2, 9, 0)),
+                new AvailableVisit(3L, 2L, Specialization.SURGEON, LocalDateTime.of(2026, 3, 2, 8, 0), LocalDateTime.of(2026, 3, 2, 9, 0)),
+                new AvailableVisit(4L, 1L, Specialization.CARDIOLOGIST, LocalDateTime.of(2026, 3, 20, 8, 0), LocalDateTime.of(2026, 3, 20, 9, 0))
+        ));
+        // when
+        availableVisitIndex.load();
+        List<AvailableVisit> result = availableVisitIndex.find(Specialization.CARDIOLOGIST, null,
+                LocalDateTime.of(2026, 3, 2, 0, 0), LocalDateTime.of(2026, 3, 9, 0, 0));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(2, result.size()),
+                () -> assertEquals(2L, result.getFirst().id()),
+                () -> assertEquals(1L, result.getLast().id())
+        );
+        verify(visitRepository, times(1)).findAvailableVisitsStartingAfter(now);
+    }
+
+    @Test
+    void find_DoctorIdsGiven_VisitsOfOtherDoctorsSkipped() {
+        // given
+        availableVisitIndex.addAfterCommit(List.of(
+                createVisit(1L, 1L, LocalDateTime.of(2026, 3, 2, 10, 0)),
+                createVisit(2L, 2L, LocalDateTime.of(2026, 3, 2, 11, 0))
+        ));
+        // when
+        List<AvailableVisit> result = availableVisitIndex.find(Specialization.CARDIOLOGIST, Set.of(2L),
+                LocalDateTime.of(2026, 3, 2, 0, 0), LocalDateTime.of(2026, 3, 3, 0, 0));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, result.size()),
+                () -> assertEquals(2L, result.getFirst().id())
+        );
+    }
+
+    @Test
+    void removeAfterCommit_VisitAssigned_VisitNoLongerFound() {
+        // given
+        Visit visit = createVisit(1L, 1L, LocalDateTime.of(2026, 3, 2, 10, 0));
+        availableVisitIndex.addAfterCommit(List.of(visit));
+        // when
+        availableVisitIndex.removeAfterCommit(visit);
+        // then
+        assertTrue(availableVisitIndex.find(Specialization.CARDIOLOGIST, null,
+                LocalDateTime.of(2026, 3, 2, 0, 0), LocalDateTime.of(2026, 3, 3, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void find_RangeInThePast_VisitsBeforeCurrentDateSkipped() {
+        // given
+        availableVisitIndex.addAfterCommit(List.of(
+                createVisit(1L, 1L, LocalDateTime.of(2026, 2, 15, 10, 0)),
+                createVisit(2L, 1L, LocalDateTime.of(2026, 2, 15, 14, 0))
+        ));
+        // when
+        List<AvailableVisit> result = availableVisitIndex.find(Specialization.CARDIOLOGIST, null,
+                LocalDateTime.of(2026, 2, 15, 0, 0), LocalDateTime.of(2026, 2, 16, 0, 0));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, result.size()),
+                () -> assertEquals(2L, result.getFirst().id())
+        );
+    }
+
+    @Test
+    void evictBefore_DaysBeforeDate_VisitsFromOlderDaysRemoved() {
+        // given
+        availableVisitIndex.addAfterCommit(List.of(
+                createVisit(1L, 1L, LocalDateTime.of(2026, 3, 2, 10, 0)),
+                createVisit(2L, 1L, LocalDateTime.of(2026, 3, 4, 10, 0))
+        ));
+        // when
+        availableVisitIndex.evictBefore(LocalDateTime.of(2026, 3, 3, 12, 0));
+        List<AvailableVisit> result = availableVisitIndex.find(Specialization.CARDIOLOGIST, null,
+                LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 3, 5, 0, 0));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, result.size()),
+                () -> assertEquals(2L, result.getFirst().id())
+        );
+    }
+
+    @Test
+    void changeSpecializationAfterCommit_DoctorVisitsIndexed_VisitsMovedAndStillRemovable() {
+        // given
+        Visit visit = createVisit(1L, 1L, LocalDateTime.of(2026, 3, 2, 10, 0));
+        availableVisitIndex.addAfterCommit(List.of(
+                visit,
+                createVisit(2L, 2L, LocalDateTime.of(2026, 3, 2, 11, 0))
+        ));
+        LocalDateTime from = LocalDateTime.of(2026, 3, 2, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 3, 0, 0);
+        // when
+        availableVisitIndex.changeSpecializationAfterCommit(1L, Specialization.SURGEON);
+        List<AvailableVisit> surgeonVisits = availableVisitIndex.find(Specialization.SURGEON, null, from, to);
+        List<AvailableVisit> cardiologistVisits = availableVisitIndex.find(Specialization.CARDIOLOGIST, null, from, to);
+        visit.getDoctor().setSpecialization(Specialization.SURGEON);
+        availableVisitIndex.removeAfterCommit(visit);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(List.of(1L), surgeonVisits.stream().map(AvailableVisit::id).toList()),
+                () -> assertEquals(List.of(2L), cardiologistVisits.stream().map(AvailableVisit::id).toList()),
+                () -> assertTrue(availableVisitIndex.find(Specialization.SURGEON, null, from, to).isEmpty())
+        );
+    }
+
+    @Test
+    void removeDoctorAfterCommit_DoctorVisitsIndexed_OnlyDoctorVisitsRemoved() {
+        // given
+        availableVisitIndex.addAfterCommit(List.of(
+                createVisit(1L, 1L, LocalDateTime.of(2026, 3, 2, 10, 0)),
+                createVisit(2L, 2L, LocalDateTime.of(2026, 3, 2, 11, 0))
+        ));
+        // when
+        availableVisitIndex.removeDoctorAfterCommit(1L);
+        List<AvailableVisit> result = availableVisitIndex.find(Specialization.CARDIOLOGIST, null,
+                LocalDateTime.of(2026, 3, 2, 0, 0), LocalDateTime.of(2026, 3, 3, 0, 0));
+        // then
+        assertEquals(List.of(2L), result.stream().map(AvailableVisit::id).toList());
+    }
+
+    @Test
+    void findDoctorIdsByTown_TownQueriedTwice_DatabaseQueriedOnceUntilEvicted() {
+        // given
+        when(doctorRepository.findIdsByInstitutionTown("Warszawa")).thenReturn(List.of(1L, 2L));
+        // when
+        Set<Long> first = availableVisitIndex.findDoctorIdsByTown("Warszawa");
+        Set<Long> second = availableVisitIndex.findDoctorIdsByTown("warszawa");
+        availableVisitIndex.evictTownsAfterCommit();
+        availableVisitIndex.findDoctorIdsByTown("Warszawa");
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(Set.of(1L, 2L), first),
+                () -> assertEquals(first, second)
+        );
+        verify(doctorRepository, times(2)).findIdsByInstitutionTown("Warszawa");
+        verifyNoMoreInteractions(doctorRepository);
+    }
+
+    @Test
+    void findDoctorIdsByTown_TownWithoutDoctors_ResultNotCached() {
+        // given
+        when(doctorRepository.findIdsByInstitutionTown("Nieznane")).thenReturn(List.of());
+        // when
+        Set<Long> first = availableVisitIndex.findDoctorIdsByTown("Nieznane");
+        availableVisitIndex.findDoctorIdsByTown("Nieznane");
+        // then
+        assertTrue(first.isEmpty());
+        verify(doctorRepository, times(2)).findIdsByInstitutionTown("Nieznane");
+    }
+
+    private Visit createVisit(Long id, Long doctorId, LocalDateTime startDate) {
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        doctor.setSpecialization(Specialization.CARDIOLOGIST);
+        Visit visit = new Visit();
+        visit.setId(id);
+        visit.setDoctor(doctor);
+        visit.setStartDate(startDate);
+        visit.setEndDate(startDate.plusHours(1));
+        return visit;
+    }
+}
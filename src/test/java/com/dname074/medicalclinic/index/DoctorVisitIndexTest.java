@@ -0,0 +1,197 @@
+package com.dname074.medicalclinic.index;
+
+import com.dname074.medicalclinic.model.Visit;
+import com.dname074.medicalclinic.repository.VisitRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DoctorVisitIndexTest {
+    VisitRepository visitRepository;
+    DoctorVisitIndex doctorVisitIndex;
+    Clock clock = Clock.fixed(
+            LocalDateTime.of(2026, 2, 15, 12, 0, 0)
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant(),
+            ZoneId.systemDefault()
+    );
+
+    @BeforeEach
+    void setup() {
+        this.visitRepository = Mockito.mock(VisitRepository.class);
+        this.doctorVisitIndex = new DoctorVisitIndex(visitRepository, clock);
+    }
+
+    @Test
+    void load_VisitsFound_DoctorSchedulesFilled() {
+        // given
+        LocalDateTime now = LocalDateTime.now(clock);
+        when(visitRepository.findScheduledVisitsEndingAfter(now)).thenReturn(List.of(
+                new ScheduledVisit(1L, LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0), false),
+                new ScheduledVisit(1L, LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 9, 0), true)
+        ));
+        // when
+        doctorVisitIndex.load();
+        // then
+        Assertions.assertAll(
+                () -> assertFalse(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 1, 10, 30), LocalDateTime.of(2026, 3, 1, 11, 30))),
+                () -> assertTrue(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 1, 11, 0), LocalDateTime.of(2026, 3, 1, 12, 0))),
+                () -> assertTrue(doctorVisitIndex.isFree(2L, LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0))),
+                () -> assertEquals(Optional.of(LocalDateTime.of(2026, 3, 1, 10, 0)), doctorVisitIndex.findFirstFreeSlot(1L,
+                        LocalDateTime.of(2026, 3, 1, 0, 0), 60, LocalDateTime.of(2026, 3, 2, 0, 0)))
+        );
+        verify(visitRepository, times(1)).findScheduledVisitsEndingAfter(now);
+    }
+
+    @Test
+    void isFree_VisitCrossesMidnight_BothDaysChecked() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 23, 30), LocalDateTime.of(2026, 3, 2, 0, 30));
+        // when & then
+        Assertions.assertAll(
+                () -> assertFalse(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 1, 23, 45), LocalDateTime.of(2026, 3, 2, 0, 0))),
+                () -> assertFalse(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 2, 0, 15), LocalDateTime.of(2026, 3, 2, 1, 0))),
+                () -> assertTrue(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 2, 0, 30), LocalDateTime.of(2026, 3, 2, 1, 0)))
+        );
+    }
+
+    @Test
+    void reserve_DateOverlapsWithDoctorsVisit_FalseReturned() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0));
+        // when
+        boolean result = doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 9, 30), LocalDateTime.of(2026, 3, 1, 10, 15));
+        // then
+        assertFalse(result);
+    }
+
+    @Test
+    void reserve_SameDateForAnotherDoctor_TrueReturned() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0));
+        // when
+        boolean result = doctorVisitIndex.reserve(2L, LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0));
+        // then
+        assertTrue(result);
+    }
+
+    @Test
+    void reserve_DateAdjacentToDoctorsVisits_TrueReturned() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 9, 0), LocalDateTime.of(2026, 3, 1, 10, 0));
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 11, 0), LocalDateTime.of(2026, 3, 1, 12, 0));
+        // when
+        boolean result = doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0));
+        // then
+        Assertions.assertAll(
+                () -> assertTrue(result),
+                () -> assertFalse(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 1, 10, 45), LocalDateTime.of(2026, 3, 1, 11, 15)))
+        );
+    }
+
+    @Test
+    void reserveAll_OneVisitOverlaps_NoVisitReserved() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 2, 10, 0), LocalDateTime.of(2026, 3, 2, 11, 0));
+        List<Visit> visits = List.of(
+                createVisit(LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0)),
+                createVisit(LocalDateTime.of(2026, 3, 2, 10, 30), LocalDateTime.of(2026, 3, 2, 11, 30)));
+        // when
+        boolean result = doctorVisitIndex.reserveAll(1L, visits);
+        // then
+        Assertions.assertAll(
+                () -> assertFalse(result),
+                () -> assertTrue(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0)))
+        );
+    }
+
+    @Test
+    void findFirstFreeSlot_EarlierVisitBooked_FirstFreeVisitReturned() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 9, 0));
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 9, 0), LocalDateTime.of(2026, 3, 1, 10, 0));
+        doctorVisitIndex.book(1L, LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 9, 0));
+        // when
+        Optional<LocalDateTime> result = doctorVisitIndex.findFirstFreeSlot(1L, LocalDateTime.of(2026, 3, 1, 7, 50), 60,
+                LocalDateTime.of(2026, 3, 2, 0, 0));
+        // then
+        assertEquals(Optional.of(LocalDateTime.of(2026, 3, 1, 9, 0)), result);
+    }
+
+    @Test
+    void findFirstFreeSlot_AdjacentVisitsShorterThanLength_LongEnoughVisitReturned() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 8, 30));
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 8, 30), LocalDateTime.of(2026, 3, 1, 9, 0));
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 2, 23, 30), LocalDateTime.of(2026, 3, 3, 0, 30));
+        // when
+        Optional<LocalDateTime> result = doctorVisitIndex.findFirstFreeSlot(1L, LocalDateTime.of(2026, 3, 1, 8, 0), 45,
+                LocalDateTime.of(2026, 3, 4, 0, 0));
+        // then
+        assertEquals(Optional.of(LocalDateTime.of(2026, 3, 2, 23, 30)), result);
+    }
+
+    @Test
+    void findFirstFreeSlot_OnlyUnscheduledTimeBeforeLimit_EmptyReturned() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 9, 0));
+        doctorVisitIndex.book(1L, LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 9, 0));
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 12, 0), LocalDateTime.of(2026, 3, 1, 13, 0));
+        // when
+        Optional<LocalDateTime> result = doctorVisitIndex.findFirstFreeSlot(1L, LocalDateTime.of(2026, 3, 1, 8, 0), 30,
+                LocalDateTime.of(2026, 3, 1, 12, 0));
+        // then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void findFirstFreeSlot_ManyDaysScheduled_WindowGrowsInBothDirections() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 6, 1, 8, 0), LocalDateTime.of(2026, 6, 1, 9, 0));
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 9, 0));
+        doctorVisitIndex.book(1L, LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 9, 0));
+        // when
+        Optional<LocalDateTime> result = doctorVisitIndex.findFirstFreeSlot(1L, LocalDateTime.of(2026, 3, 1, 0, 0), 60,
+                LocalDateTime.of(2026, 7, 1, 0, 0));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(Optional.of(LocalDateTime.of(2026, 6, 1, 8, 0)), result),
+                () -> assertFalse(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 1, 8, 0), LocalDateTime.of(2026, 3, 1, 8, 15)))
+        );
+    }
+
+    @Test
+    void evictBefore_DaysBeforeDate_OnlyOlderDaysCleared() {
+        // given
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0));
+        doctorVisitIndex.reserve(1L, LocalDateTime.of(2026, 3, 3, 10, 0), LocalDateTime.of(2026, 3, 3, 11, 0));
+        // when
+        doctorVisitIndex.evictBefore(LocalDateTime.of(2026, 3, 2, 12, 0));
+        // then
+        Assertions.assertAll(
+                () -> assertTrue(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 1, 10, 0), LocalDateTime.of(2026, 3, 1, 11, 0))),
+                () -> assertFalse(doctorVisitIndex.isFree(1L, LocalDateTime.of(2026, 3, 3, 10, 0), LocalDateTime.of(2026, 3, 3, 11, 0)))
+        );
+    }
+
+    private Visit createVisit(LocalDateTime startDate, LocalDateTime endDate) {
+        Visit visit = new Visit();
+        visit.setStartDate(startDate);
+        visit.setEndDate(endDate);
+        return visit;
+    }
+}
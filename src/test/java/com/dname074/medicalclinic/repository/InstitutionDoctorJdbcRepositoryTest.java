@@ -0,0 +1,79 @@
+package com.dname074.medicalclinic.repository;
+
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Institution;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+public class InstitutionDoctorJdbcRepositoryTest {
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    InstitutionDoctorJdbcRepository institutionDoctorRepository;
+
+    Institution institution;
+    List<Doctor> doctors;
+
+    @BeforeEach
+    void setup() {
+        institution = new Institution();
+        institution.setName("Placówka łącząca");
+        institution.setTown("Krakow");
+        institution.setDoctors(new HashSet<>());
+        entityManager.persist(institution);
+        doctors = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Doctor doctor = new Doctor();
+            doctor.setEmail("jdbc.doctor" + i + "@onet.pl");
+            doctor.setPassword("password123");
+            doctor.setSpecialization(Specialization.SURGEON);
+            doctor.setUser(new User(null, "Jan", "Laczony" + i));
+            entityManager.persist(doctor);
+            doctors.add(doctor);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void insertAllAndDeleteAll_DoctorIdsGiven_JoinTableUpdated() {
+        // given
+        Long institutionId = institution.getId();
+        List<Long> doctorIds = doctors.stream()
+                .map(Doctor::getId)
+                .toList();
+        // when
+        institutionDoctorRepository.insertAll(institutionId, doctorIds);
+        institutionDoctorRepository.deleteAll(institutionId, List.of(doctorIds.getFirst()));
+        // then
+        assertEquals(Set.of(doctorIds.get(1), doctorIds.get(2)), institutionDoctorRepository.findDoctorIds(institutionId));
+        assertEquals(2, entityManager.find(Institution.class, institutionId).getDoctors().size());
+    }
+
+    @Test
+    void exists_DoctorAssigned_TrueReturnedOnlyForAssignedDoctor() {
+        // given
+        Long institutionId = institution.getId();
+        institutionDoctorRepository.insertAll(institutionId, List.of(doctors.getFirst().getId()));
+        // when & then
+        assertTrue(institutionDoctorRepository.exists(institutionId, doctors.getFirst().getId()));
+        assertFalse(institutionDoctorRepository.exists(institutionId, doctors.getLast().getId()));
+    }
+}
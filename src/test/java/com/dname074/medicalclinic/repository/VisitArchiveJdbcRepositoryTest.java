@@ -0,0 +1,103 @@
+package com.dname074.medicalclinic.repository;
+
+import com.dname074.medicalclinic.archive.ExpiredVisit;
+import com.dname074.medicalclinic.model.ArchivedVisit;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.User;
+import com.dname074.medicalclinic.model.Visit;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@Transactional
+public class VisitArchiveJdbcRepositoryTest {
+    private static final LocalDateTime ENDED_BEFORE = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    VisitArchiveJdbcRepository visitArchiveRepository;
+
+    Patient patient;
+    Visit bookedVisit;
+    Visit freeVisit;
+    Visit futureVisit;
+
+    @BeforeEach
+    void setup() {
+        Doctor doctor = new Doctor();
+        doctor.setEmail("archive.doctor@onet.pl");
+        doctor.setPassword("password123");
+        doctor.setSpecialization(Specialization.CARDIOLOGIST);
+        doctor.setUser(new User(null, "Jan", "Archiwalny"));
+        entityManager.persist(doctor);
+        patient = new Patient();
+        patient.setEmail("archive.patient@onet.pl");
+        patient.setPassword("password123");
+        patient.setIdCardNo("ARCHIVE1");
+        patient.setPhoneNumber("555555555");
+        patient.setBirthday(LocalDate.of(1990, 1, 1));
+        patient.setUser(new User(null, "Anna", "Archiwalna"));
+        entityManager.persist(patient);
+        bookedVisit = persistVisit(doctor, patient, LocalDateTime.of(2024, 5, 1, 10, 0));
+        freeVisit = persistVisit(doctor, null, LocalDateTime.of(2024, 5, 1, 11, 0));
+        futureVisit = persistVisit(doctor, null, LocalDateTime.of(2024, 6, 2, 10, 0));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findEndedBefore_VisitsEnded_OnlyEndedVisitsReturnedInIdOrder() {
+        // when
+        List<ExpiredVisit> result = visitArchiveRepository.findEndedBefore(ENDED_BEFORE, 10);
+        // then
+        assertEquals(List.of(new ExpiredVisit(bookedVisit.getId(), patient.getId()), new ExpiredVisit(freeVisit.getId(), null)), result);
+    }
+
+    @Test
+    void archiveBookedAndDeleteAll_EndedVisitsGiven_BookedVisitMovedAndFreeVisitDropped() {
+        // given
+        List<Long> ids = List.of(bookedVisit.getId(), freeVisit.getId());
+        LocalDateTime archivedAt = LocalDateTime.of(2024, 6, 8, 0, 0);
+        // when
+        int archived = visitArchiveRepository.archiveBooked(ids, archivedAt);
+        int deleted = visitArchiveRepository.deleteAll(ids);
+        // then
+        ArchivedVisit archivedVisit = entityManager.find(ArchivedVisit.class, bookedVisit.getId());
+        Assertions.assertAll(
+                () -> assertEquals(1, archived),
+                () -> assertEquals(2, deleted),
+                () -> assertEquals(patient.getId(), archivedVisit.getPatientId()),
+                () -> assertEquals(bookedVisit.getStartDate(), archivedVisit.getStartDate()),
+                () -> assertEquals(archivedAt, archivedVisit.getArchivedAt()),
+                () -> assertNull(entityManager.find(ArchivedVisit.class, freeVisit.getId())),
+                () -> assertNull(entityManager.find(Visit.class, bookedVisit.getId())),
+                () -> assertNotNull(entityManager.find(Visit.class, futureVisit.getId()))
+        );
+    }
+
+    private Visit persistVisit(Doctor doctor, Patient patient, LocalDateTime startDate) {
+        Visit visit = new Visit();
+        visit.setStartDate(startDate);
+        visit.setEndDate(startDate.plusMinutes(30));
+        visit.setDoctor(doctor);
+        visit.setPatient(patient);
+        entityManager.persist(visit);
+        return visit;
+    }
+}
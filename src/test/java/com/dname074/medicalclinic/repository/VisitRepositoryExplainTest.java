@@ -0,0 +1,171 @@
+package com.dname074.medicalclinic.repository;
+
+import com.dname074.medicalclinic.dto.CalendarVisitDto;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.User;
+import com.dname074.medicalclinic.model.Visit;
+import jakarta.persistence.EntityManager;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// EXPLAIN dostaje dokładnie ten SQL, który Hibernate wygenerował dla metody repozytorium, z parametrami z fixture
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "com.dname074.medicalclinic.repository.VisitRepositoryExplainTest$SqlCapturingInspector")
+@Transactional
+public class VisitRepositoryExplainTest {
+    @Autowired
+    EntityManager entityManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    VisitRepository visitRepository;
+
+    Doctor doctor;
+    Patient patient;
+    Visit firstVisit;
+
+    @BeforeEach
+    void setup() {
+        doctor = createDoctor();
+        patient = createPatient();
+        for (int i = 0; i < 100; i++) {
+            LocalDateTime startDate = LocalDateTime.of(2030, 1, 1, 8, 0, 0).plusDays(i);
+            Visit visit = createVisit(doctor, i % 2 == 0 ? patient : null, startDate);
+            if (i == 0) {
+                firstVisit = visit;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findByPatientId_PatientIdGiven_PatientIndexUsed() {
+        // given
+        String sql = captureSql(() -> visitRepository.findByPatientId(patient.getId(), PageRequest.of(0, 10, Sort.by("id"))));
+        // when
+        String plan = explain(sql, patient.getId(), 10);
+        // then
+        assertTrue(plan.contains("IDX_VISITS_PATIENT_ID_ID"), plan);
+    }
+
+    @Test
+    void findIdsByPatientIdAfter_CursorGiven_PatientIndexUsed() {
+        // given
+        String sql = captureSql(() -> visitRepository.findIdsByPatientIdAfter(patient.getId(), firstVisit.getId(), PageRequest.of(0, 21)));
+        // when
+        String plan = explain(sql, patient.getId(), firstVisit.getId(), 21);
+        // then
+        assertTrue(plan.contains("IDX_VISITS_PATIENT_ID_ID"), plan);
+    }
+
+    @Test
+    void findCalendarByDoctorId_DoctorIdGiven_DoctorDateIndexUsed() {
+        // given
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, 2, 1, 0, 0, 0);
+        String sql = captureSql(() -> visitRepository.findCalendarByDoctorId(doctor.getId(), from, to));
+        // when
+        String plan = explain(sql, doctor.getId(), from, to);
+        // then
+        assertTrue(plan.contains("UK_VISITS_DOCTOR_ID_START_DATE_END_DATE"), plan);
+    }
+
+    @Test
+    void findCalendarByDoctorId_RangeGiven_VisitsStartingInRangeReturned() {
+        // when
+        List<CalendarVisitDto> result = visitRepository.findCalendarByDoctorId(doctor.getId(),
+                LocalDateTime.of(2030, 1, 2, 0, 0, 0), LocalDateTime.of(2030, 1, 4, 0, 0, 0));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(2, result.size()),
+                () -> assertEquals(LocalDateTime.of(2030, 1, 2, 8, 0, 0), result.getFirst().startDate()),
+                () -> assertFalse(result.getFirst().booked()),
+                () -> assertTrue(result.getLast().booked())
+        );
+    }
+
+    @Test
+    void findScheduledVisitsEndingAfter_DateGiven_EndDateIndexUsed() {
+        // given
+        LocalDateTime date = LocalDateTime.of(2030, 4, 1, 0, 0, 0);
+        String sql = captureSql(() -> visitRepository.findScheduledVisitsEndingAfter(date));
+        // when
+        String plan = explain(sql, date);
+        // then
+        assertTrue(plan.contains("IDX_VISITS_END_DATE"), plan);
+    }
+
+    // pierwsze zapytanie wykonane przez metodę repozytorium - przy Page kolejne jest już zapytaniem count
+    private String captureSql(Runnable query) {
+        SqlCapturingInspector.STATEMENTS.clear();
+        query.run();
+        return SqlCapturingInspector.STATEMENTS.getFirst();
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, parameters)
+                .toUpperCase();
+    }
+
+    private Doctor createDoctor() {
+        Doctor doctor = new Doctor();
+        doctor.setEmail("doctor@onet.pl");
+        doctor.setPassword("password123");
+        doctor.setSpecialization(Specialization.CARDIOLOGIST);
+        doctor.setUser(new User(null, "Jan", "Doktor"));
+        entityManager.persist(doctor);
+        return doctor;
+    }
+
+    private Patient createPatient() {
+        Patient patient = new Patient();
+        patient.setEmail("patient@onet.pl");
+        patient.setPassword("password123");
+        patient.setIdCardNo("ABC");
+        patient.setPhoneNumber("555555555");
+        patient.setBirthday(LocalDate.of(1990, 1, 1));
+        patient.setUser(new User(null, "Anna", "Pacjent"));
+        entityManager.persist(patient);
+        return patient;
+    }
+
+    private Visit createVisit(Doctor doctor, Patient patient, LocalDateTime startDate) {
+        Visit visit = new Visit();
+        visit.setStartDate(startDate);
+        visit.setEndDate(startDate.plusHours(1));
+        visit.setDoctor(doctor);
+        visit.setPatient(patient);
+        entityManager.persist(visit);
+        return visit;
+    }
+
+    public static class SqlCapturingInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.dname074.medicalclinic.service;
+
+import com.dname074.medicalclinic.dto.DoctorDto;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.User;
+import com.dname074.medicalclinic.repository.DoctorRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class DoctorServiceCacheTest {
+    @Autowired
+    DoctorService doctorService;
+    @Autowired
+    DoctorRepository doctorRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    Doctor doctor;
+
+    @BeforeEach
+    void setup() {
+        Doctor newDoctor = new Doctor();
+        newDoctor.setEmail("cache.doctor@onet.pl");
+        newDoctor.setPassword("password123");
+        newDoctor.setSpecialization(Specialization.DERMATOLOGIST);
+        newDoctor.setUser(new User(null, "Jan", "Podreczny"));
+        newDoctor.setInstitutions(new HashSet<>());
+        doctor = doctorRepository.save(newDoctor);
+    }
+
+    @AfterEach
+    void cleanup() {
+        doctorRepository.deleteById(doctor.getId());
+    }
+
+    @Test
+    void getDoctorDtoById_DoctorReadBefore_DatabaseNotQueried() {
+        // given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        transactionTemplate.execute(status -> doctorService.getDoctorDtoById(doctor.getId()));
+        statistics.clear();
+        // when
+        DoctorDto result = transactionTemplate.execute(status -> doctorService.getDoctorDtoById(doctor.getId()));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals("cache.doctor@onet.pl", result.email()),
+                () -> assertEquals("Podreczny", result.user().lastName()),
+                () -> assertEquals(0, statistics.getPrepareStatementCount()),
+                () -> assertTrue(statistics.getSecondLevelCacheHitCount() > 0)
+        );
+    }
+}
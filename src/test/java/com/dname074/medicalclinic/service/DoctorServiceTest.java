@@ -1,31 +1,42 @@
 package com.dname074.medicalclinic.service;
 
 import com.dname074.medicalclinic.argumentmatcher.DoctorArgumentMatcher;
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
 import com.dname074.medicalclinic.dto.DoctorDto;
 import com.dname074.medicalclinic.dto.PageDto;
 import com.dname074.medicalclinic.dto.command.CreateDoctorCommand;
 import com.dname074.medicalclinic.exception.doctor.DoctorAlreadyExistsException;
 import com.dname074.medicalclinic.exception.doctor.DoctorNotFoundException;
+import com.dname074.medicalclinic.index.AvailableVisitIndex;
 import com.dname074.medicalclinic.exception.user.UserAlreadyExistsException;
+import com.dname074.medicalclinic.mapper.CursorMapper;
 import com.dname074.medicalclinic.mapper.DoctorMapper;
 import com.dname074.medicalclinic.mapper.PageMapper;
 import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Institution;
 import com.dname074.medicalclinic.model.Specialization;
 import com.dname074.medicalclinic.model.User;
 import com.dname074.medicalclinic.repository.DoctorRepository;
 import com.dname074.medicalclinic.repository.UserRepository;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
+import com.dname074.medicalclinic.waitlist.WaitlistQueue;
+import com.dname074.medicalclinic.waitlist.WaitlistTicket;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -33,6 +44,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -45,6 +57,10 @@ public class DoctorServiceTest {
     UserRepository userRepository;
     DoctorMapper doctorMapper;
     PageMapper pageMapper;
+    ResponseCache responseCache;
+    AvailableVisitIndex availableVisitIndex;
+    WaitlistEntryRepository waitlistEntryRepository;
+    WaitlistQueue waitlistQueue;
 
     @BeforeEach
     void setup() {
@@ -52,26 +68,35 @@ public class DoctorServiceTest {
         this.userRepository = Mockito.mock(UserRepository.class);
         this.doctorMapper = Mappers.getMapper(DoctorMapper.class);
         this.pageMapper = Mappers.getMapper(PageMapper.class);
-        this.service = new DoctorService(doctorRepository, userRepository, doctorMapper, pageMapper);
+        this.responseCache = Mockito.mock(ResponseCache.class);
+        this.availableVisitIndex = Mockito.mock(AvailableVisitIndex.class);
+        this.waitlistEntryRepository = Mockito.mock(WaitlistEntryRepository.class);
+        this.waitlistQueue = Mockito.mock(WaitlistQueue.class);
+        this.service = new DoctorService(doctorRepository, userRepository, doctorMapper, pageMapper, new CursorMapper(),
+                responseCache, availableVisitIndex, waitlistEntryRepository, waitlistQueue);
     }
 
     @Test
     void findAll_DoctorsExists_PageReturned() {
         // given
         Doctor doctor = createDoctor();
+        doctor.setId(1L);
         List<Doctor> doctors = List.of(doctor);
         Pageable pageRequest = PageRequest.of(0, 1);
-        Page<Doctor> doctorsPage = new PageImpl<>(doctors, pageRequest, 1);
-        when(doctorRepository.findAllWithUsers(pageRequest)).thenReturn(doctorsPage);
+        Page<Long> idsPage = new PageImpl<>(List.of(doctor.getId()), pageRequest, 1);
+        when(doctorRepository.findAllIds(pageRequest)).thenReturn(idsPage);
+        when(doctorRepository.findAllWithUsersByIdIn(idsPage.getContent())).thenReturn(doctors);
         // when
         PageDto<DoctorDto> result = service.findAllDoctors(pageRequest);
         // then
         Assertions.assertAll(
                 () -> assertEquals(1, result.totalPages()),
                 () -> assertEquals(1, result.totalElements()),
-                () -> assertFalse(result.content().isEmpty())
+                () -> assertFalse(result.content().isEmpty()),
+                () -> assertEquals(doctor.getId(), result.content().getFirst().id())
         );
-        verify(doctorRepository, times(1)).findAllWithUsers(pageRequest);
+        verify(doctorRepository, times(1)).findAllIds(pageRequest);
+        verify(doctorRepository, times(1)).findAllWithUsersByIdIn(List.of(doctor.getId()));
         verifyNoMoreInteractions(doctorRepository);
     }
 
@@ -175,6 +200,10 @@ public class DoctorServiceTest {
         CreateDoctorCommand createDoctorCommandNewData = new CreateDoctorCommand("emailUpdated@onet.pl", "Jan", "Kowalski",
                 "123", Specialization.DERMATOLOGIST);
         Doctor doctor = doctorMapper.toEntity(createDoctorCommand);
+        doctor.setId(doctorId);
+        Institution institution = new Institution();
+        institution.setId(2L);
+        doctor.setInstitutions(new HashSet<>(Set.of(institution)));
         when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
         when(doctorRepository.save(doctor)).thenReturn(doctor);
         // when
@@ -189,7 +218,29 @@ public class DoctorServiceTest {
         );
         verify(doctorRepository, times(1)).findById(1L);
         verify(doctorRepository, times(1)).save(argThat(new DoctorArgumentMatcher(doctor)));
-        verifyNoMoreInteractions(doctorRepository);
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.DOCTOR, List.of(1L));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.INSTITUTION, List.of(2L));
+        verify(responseCache, times(1)).evictAllAfterCommit(ResponseRegion.PATIENT);
+        verifyNoMoreInteractions(doctorRepository, responseCache);
+        verifyNoInteractions(availableVisitIndex);
+    }
+
+    @Test
+    void updateDoctorById_SpecializationChanged_AvailableVisitsMovedToNewSpecialization() {
+        // given
+        Long doctorId = 1L;
+        CreateDoctorCommand createDoctorCommandNewData = new CreateDoctorCommand("email", "Jan", "Kowalski",
+                "123", Specialization.CARDIOLOGIST);
+        Doctor doctor = createDoctor();
+        doctor.setId(doctorId);
+        doctor.setInstitutions(new HashSet<>());
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+        // when
+        DoctorDto result = service.updateDoctorById(doctorId, createDoctorCommandNewData);
+        // then
+        assertEquals(Specialization.CARDIOLOGIST, result.specialization());
+        verify(availableVisitIndex, times(1)).changeSpecializationAfterCommit(1L, Specialization.CARDIOLOGIST);
+        verifyNoMoreInteractions(availableVisitIndex);
     }
 
     @Test
@@ -210,6 +261,8 @@ public class DoctorServiceTest {
         Long doctorId = 1L;
         CreateDoctorCommand createDoctorCommand = makeCreateDoctorCommand();
         Doctor doctor = doctorMapper.toEntity(createDoctorCommand);
+        doctor.setId(doctorId);
+        doctor.setInstitutions(new HashSet<>());
         when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
         doNothing().when(doctorRepository).delete(doctor);
         // when
@@ -224,9 +277,30 @@ public class DoctorServiceTest {
         );
         verify(doctorRepository, times(1)).findById(1L);
         verify(doctorRepository, times(1)).delete(doctor);
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.DOCTOR, List.of(1L));
+        verify(availableVisitIndex, times(1)).removeDoctorAfterCommit(1L);
         verifyNoMoreInteractions(doctorRepository);
     }
 
+    @Test
+    void deleteDoctorById_DoctorHasWaitlistEntries_EntriesDeletedAndRemovedFromQueue() {
+        // given
+        Long doctorId = 1L;
+        Doctor doctor = createDoctor();
+        doctor.setId(doctorId);
+        doctor.setInstitutions(new HashSet<>());
+        WaitlistTicket ticket = new WaitlistTicket(5L, 2L, doctorId, null, 0);
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+        when(waitlistEntryRepository.findTicketsByDoctorId(doctorId)).thenReturn(List.of(ticket));
+        // when
+        service.deleteDoctorById(doctorId);
+        // then
+        InOrder inOrder = inOrder(waitlistEntryRepository, doctorRepository);
+        inOrder.verify(waitlistEntryRepository).deleteEntriesByDoctorId(1L);
+        inOrder.verify(doctorRepository).delete(doctor);
+        verify(waitlistQueue, times(1)).removeAfterCommit(ticket);
+    }
+
     @Test
     void deleteDoctorById_DoctorNotFound_DoctorNotFoundExceptionThrown() {
         // given
@@ -1,16 +1,21 @@
 package com.dname074.medicalclinic.service;
 
-import com.dname074.medicalclinic.argumentmatcher.DoctorArgumentMatcher;
 import com.dname074.medicalclinic.argumentmatcher.InstitutionArgumentMatcher;
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
 import com.dname074.medicalclinic.dto.DoctorDto;
+import com.dname074.medicalclinic.dto.InstitutionDoctorsDto;
 import com.dname074.medicalclinic.dto.InstitutionDto;
 import com.dname074.medicalclinic.dto.PageDto;
 import com.dname074.medicalclinic.dto.command.CreateDoctorCommand;
 import com.dname074.medicalclinic.dto.command.CreateInstitutionCommand;
+import com.dname074.medicalclinic.dto.command.ReplaceInstitutionDoctorsCommand;
 import com.dname074.medicalclinic.exception.doctor.DoctorAlreadyExistsException;
 import com.dname074.medicalclinic.exception.doctor.DoctorNotFoundException;
 import com.dname074.medicalclinic.exception.institution.InstitutionExistsException;
 import com.dname074.medicalclinic.exception.institution.InstitutionNotFoundException;
+import com.dname074.medicalclinic.index.AvailableVisitIndex;
+import com.dname074.medicalclinic.mapper.CursorMapper;
 import com.dname074.medicalclinic.mapper.DoctorMapper;
 import com.dname074.medicalclinic.mapper.InstitutionMapper;
 import com.dname074.medicalclinic.mapper.PageMapper;
@@ -18,27 +23,33 @@ import com.dname074.medicalclinic.model.Doctor;
 import com.dname074.medicalclinic.model.Institution;
 import com.dname074.medicalclinic.model.Specialization;
 import com.dname074.medicalclinic.repository.DoctorRepository;
+import com.dname074.medicalclinic.repository.InstitutionDoctorJdbcRepository;
 import com.dname074.medicalclinic.repository.InstitutionRepository;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
 import org.mockito.Mockito;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -52,6 +63,9 @@ public class InstitutionServiceTest {
     DoctorMapper doctorMapper;
     InstitutionService institutionService;
     PageMapper pageMapper;
+    ResponseCache responseCache;
+    AvailableVisitIndex availableVisitIndex;
+    InstitutionDoctorJdbcRepository institutionDoctorRepository;
 
     @BeforeEach
     void setup() {
@@ -60,26 +74,34 @@ public class InstitutionServiceTest {
         this.institutionMapper = Mappers.getMapper(InstitutionMapper.class);
         this.doctorMapper = Mappers.getMapper(DoctorMapper.class);
         this.pageMapper = Mappers.getMapper(PageMapper.class);
-        this.institutionService = new InstitutionService(institutionRepository, doctorRepository, institutionMapper, doctorMapper, pageMapper);
+        this.responseCache = Mockito.mock(ResponseCache.class);
+        this.availableVisitIndex = Mockito.mock(AvailableVisitIndex.class);
+        this.institutionDoctorRepository = Mockito.mock(InstitutionDoctorJdbcRepository.class);
+        this.institutionService = new InstitutionService(institutionRepository, doctorRepository, institutionDoctorRepository,
+                institutionMapper, doctorMapper, pageMapper, new CursorMapper(), responseCache, availableVisitIndex);
     }
 
     @Test
     void findAllInstitutions_RequestCorrect_InstitutionsReturned() {
         // given
         Institution institution = createInstitution();
+        institution.setId(1L);
         List<Institution> institutions = List.of(institution);
         Pageable pageable = PageRequest.of(0, 1);
-        Page<Institution> page = new PageImpl<>(institutions, pageable, 1);
-        when(institutionRepository.findAllWithDoctors(pageable)).thenReturn(page);
+        Page<Long> idsPage = new PageImpl<>(List.of(institution.getId()), pageable, 1);
+        when(institutionRepository.findAllIds(pageable)).thenReturn(idsPage);
+        when(institutionRepository.findAllWithDoctorsByIdIn(idsPage.getContent())).thenReturn(institutions);
         // when
         PageDto<InstitutionDto> result = institutionService.findAllInstitutions(pageable);
         // then
         Assertions.assertAll(
                 () -> assertEquals(1, result.totalElements()),
                 () -> assertEquals(1, result.totalPages()),
-                () -> assertFalse(result.content().isEmpty())
+                () -> assertFalse(result.content().isEmpty()),
+                () -> assertEquals(institution.getId(), result.content().getFirst().id())
         );
-        verify(institutionRepository, times(1)).findAllWithDoctors(pageable);
+        verify(institutionRepository, times(1)).findAllIds(pageable);
+        verify(institutionRepository, times(1)).findAllWithDoctorsByIdIn(List.of(institution.getId()));
         verifyNoMoreInteractions(institutionRepository);
         verifyNoInteractions(doctorRepository);
     }
@@ -136,7 +158,9 @@ public class InstitutionServiceTest {
         );
         verify(institutionRepository, times(1)).findByName("Placówka");
         verify(institutionRepository, times(1)).save(argThat(new InstitutionArgumentMatcher(institution)));
-        verifyNoMoreInteractions(institutionRepository);
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.INSTITUTION, List.of(1L));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.DOCTOR, List.of(2L));
+        verifyNoMoreInteractions(institutionRepository, responseCache);
         verifyNoInteractions(doctorRepository);
     }
 
@@ -161,6 +185,10 @@ public class InstitutionServiceTest {
         CreateInstitutionCommand createInstitutionCommandNewData =
                 new CreateInstitutionCommand("Placówka", "Krakow", "5555", "Szybka", 42);
         Institution institution = createInstitution();
+        institution.setId(institutionId);
+        Doctor doctor = createDoctor();
+        doctor.setId(2L);
+        institution.setDoctors(new HashSet<>(Set.of(doctor)));
         when(institutionRepository.findById(institutionId)).thenReturn(Optional.of(institution));
         when(institutionRepository.save(institution)).thenReturn(institution);
         // when
@@ -196,29 +224,25 @@ public class InstitutionServiceTest {
     @Test
     void assignDoctorToInstitution_DoctorAndInstitutionFound_DoctorAssignedToInstitution() {
         // given
-        Long doctorId = 1L;
+        Long doctorId = 2L;
         Doctor doctor = createDoctor();
+        doctor.setId(doctorId);
         Long institutionId = 1L;
-        Institution institution = createInstitution();
-        institution.setDoctors(new ArrayList<>());
-        doctor.setInstitutions(new ArrayList<>());
+        when(institutionRepository.existsById(institutionId)).thenReturn(true);
         when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-        when(institutionRepository.findById(institutionId)).thenReturn(Optional.of(institution));
-        when(doctorRepository.save(doctor)).thenReturn(doctor);
-        when(institutionRepository.save(institution)).thenReturn(institution);
+        when(institutionDoctorRepository.exists(institutionId, doctorId)).thenReturn(false);
         // when
         DoctorDto result = institutionService.assignDoctorToInstitution(doctorId, institutionId);
         // then
-        // do poprawy
-        Assertions.assertAll(
-                () -> assertTrue(doctor.getInstitutions().contains(institution)),
-                () -> assertTrue(institution.getDoctors().contains(doctor))
-        );
-        verify(doctorRepository, times(1)).findById(1L);
-        verify(doctorRepository, times(1)).save(argThat(new DoctorArgumentMatcher(doctor)));
-        verify(institutionRepository, times(1)).findById(1L);
-        verify(institutionRepository, times(1)).save(argThat(new InstitutionArgumentMatcher(institution)));
-        verifyNoMoreInteractions(institutionRepository, doctorRepository);
+        assertEquals(2L, result.id());
+        verify(institutionRepository, times(1)).existsById(1L);
+        verify(doctorRepository, times(1)).findById(2L);
+        verify(institutionDoctorRepository, times(1)).exists(1L, 2L);
+        verify(institutionDoctorRepository, times(1)).insertAll(1L, List.of(2L));
+        verify(institutionDoctorRepository, times(1)).evictCollections(1L, List.of(2L));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.INSTITUTION, List.of(1L));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.DOCTOR, List.of(2L));
+        verifyNoMoreInteractions(institutionRepository, doctorRepository, institutionDoctorRepository);
     }
 
     @Test
@@ -226,15 +250,15 @@ public class InstitutionServiceTest {
         // given
         Long doctorId = 1L;
         Long institutionId = 1L;
-        Institution institution = createInstitution();
-        when(institutionRepository.findById(institutionId)).thenReturn(Optional.of(institution));
+        when(institutionRepository.existsById(institutionId)).thenReturn(true);
         when(doctorRepository.findById(doctorId)).thenReturn(Optional.empty());
         // when & then
         DoctorNotFoundException exception = assertThrows(DoctorNotFoundException.class, () -> institutionService.assignDoctorToInstitution(doctorId, institutionId));
         assertEquals("Nie znaleziono doktora o podanym id", exception.getMessage());
-        verify(institutionRepository, times(1)).findById(institutionId);
+        verify(institutionRepository, times(1)).existsById(institutionId);
         verify(doctorRepository, times(1)).findById(doctorId);
         verifyNoMoreInteractions(institutionRepository, doctorRepository);
+        verifyNoInteractions(institutionDoctorRepository);
     }
 
     @Test
@@ -242,13 +266,13 @@ public class InstitutionServiceTest {
         // given
         Long doctorId = 1L;
         Long institutionId = 1L;
-        when(institutionRepository.findById(institutionId)).thenReturn(Optional.empty());
+        when(institutionRepository.existsById(institutionId)).thenReturn(false);
         // when & then
         InstitutionNotFoundException exception = assertThrows(InstitutionNotFoundException.class, () -> institutionService.assignDoctorToInstitution(doctorId, institutionId));
         assertEquals("Nie znaleziono instytucji o podanym id", exception.getMessage());
-        verify(institutionRepository, times(1)).findById(1L);
+        verify(institutionRepository, times(1)).existsById(1L);
         verifyNoMoreInteractions(institutionRepository);
-        verifyNoInteractions(doctorRepository);
+        verifyNoInteractions(doctorRepository, institutionDoctorRepository);
     }
 
     @Test
@@ -257,36 +281,31 @@ public class InstitutionServiceTest {
         Long doctorId = 1L;
         Doctor doctor = createDoctor();
         Long institutionId = 1L;
-        Institution institution = createInstitution();
-        institution.setDoctors(List.of(doctor));
-        doctor.setInstitutions(new ArrayList<>());
+        when(institutionRepository.existsById(institutionId)).thenReturn(true);
         when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-        when(institutionRepository.findById(institutionId)).thenReturn(Optional.of(institution));
+        when(institutionDoctorRepository.exists(institutionId, doctorId)).thenReturn(true);
         // when & then
         DoctorAlreadyExistsException exception = assertThrows(DoctorAlreadyExistsException.class, () -> institutionService.assignDoctorToInstitution(doctorId, institutionId));
         assertEquals("Podany doktor należy już do tej placówki", exception.getMessage());
-        verify(doctorRepository, times(1)).findById(1L);
-        verify(institutionRepository, times(1)).findById(1L);
-        verifyNoMoreInteractions(doctorRepository, institutionRepository);
+        verify(institutionDoctorRepository, times(1)).exists(1L, 1L);
+        verifyNoMoreInteractions(institutionDoctorRepository);
+        verifyNoInteractions(responseCache);
     }
 
     @Test
-    void assignDoctorToInstitution_InstitutionAlreadyAddedToDoctorsList_InstitutionExistsExceptionThrown() {
+    void assignDoctorToInstitution_AssignedConcurrently_DoctorAlreadyExistsExceptionThrown() {
         // given
         Long doctorId = 1L;
         Doctor doctor = createDoctor();
         Long institutionId = 1L;
-        Institution institution = createInstitution();
-        institution.setDoctors(new ArrayList<>());
-        doctor.setInstitutions(List.of(institution));
+        when(institutionRepository.existsById(institutionId)).thenReturn(true);
         when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-        when(institutionRepository.findById(institutionId)).thenReturn(Optional.of(institution));
+        when(institutionDoctorRepository.exists(institutionId, doctorId)).thenReturn(false);
+        doThrow(new DuplicateKeyException("duplicate")).when(institutionDoctorRepository).insertAll(institutionId, List.of(doctorId));
         // when & then
-        InstitutionExistsException exception = assertThrows(InstitutionExistsException.class, () -> institutionService.assignDoctorToInstitution(doctorId, institutionId));
-        assertEquals("Ten doktor jest już przypisany do podanej placówki", exception.getMessage());
-        verify(doctorRepository, times(1)).findById(1L);
-        verify(institutionRepository, times(1)).findById(1L);
-        verifyNoMoreInteractions(doctorRepository, institutionRepository);
+        DoctorAlreadyExistsException exception = assertThrows(DoctorAlreadyExistsException.class, () -> institutionService.assignDoctorToInstitution(doctorId, institutionId));
+        assertEquals("Podany doktor należy już do tej placówki", exception.getMessage());
+        verifyNoInteractions(responseCache);
     }
 
     @Test
@@ -294,6 +313,8 @@ public class InstitutionServiceTest {
         // given
         Long institutionId = 1L;
         Institution institution = createInstitution();
+        institution.setId(institutionId);
+        institution.setDoctors(new HashSet<>());
         when(institutionRepository.findById(institutionId)).thenReturn(Optional.of(institution));
         doNothing().when(institutionRepository).delete(institution);
         // when
@@ -325,9 +346,92 @@ public class InstitutionServiceTest {
         verifyNoInteractions(doctorRepository);
     }
 
+    @Test
+    void replaceDoctors_DoctorsChanged_OnlyDifferenceWritten() {
+        // given
+        Long institutionId = 1L;
+        ReplaceInstitutionDoctorsCommand command = new ReplaceInstitutionDoctorsCommand(Set.of(2L, 3L));
+        when(institutionRepository.existsById(institutionId)).thenReturn(true);
+        when(doctorRepository.findIdsByIdIn(Set.of(2L, 3L))).thenReturn(Set.of(2L, 3L));
+        when(institutionDoctorRepository.findDoctorIds(institutionId)).thenReturn(Set.of(1L, 2L));
+        // when
+        InstitutionDoctorsDto result = institutionService.replaceDoctors(institutionId, command);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1L, result.institutionId()),
+                () -> assertEquals(2, result.doctors()),
+                () -> assertEquals(1, result.added()),
+                () -> assertEquals(1, result.removed())
+        );
+        verify(institutionDoctorRepository, times(1)).findDoctorIds(1L);
+        verify(institutionDoctorRepository, times(1)).insertAll(1L, List.of(3L));
+        verify(institutionDoctorRepository, times(1)).deleteAll(1L, List.of(1L));
+        verify(institutionDoctorRepository, times(1)).evictCollections(1L, List.of(3L, 1L));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.INSTITUTION, List.of(1L));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.DOCTOR, List.of(3L, 1L));
+        verify(institutionRepository, times(1)).existsById(1L);
+        verifyNoMoreInteractions(institutionRepository, institutionDoctorRepository);
+    }
+
+    @Test
+    void replaceDoctors_DoctorAssignedConcurrently_DoctorAlreadyExistsExceptionThrown() {
+        // given
+        Long institutionId = 1L;
+        ReplaceInstitutionDoctorsCommand command = new ReplaceInstitutionDoctorsCommand(Set.of(2L));
+        when(institutionRepository.existsById(institutionId)).thenReturn(true);
+        when(doctorRepository.findIdsByIdIn(Set.of(2L))).thenReturn(Set.of(2L));
+        when(institutionDoctorRepository.findDoctorIds(institutionId)).thenReturn(Set.of());
+        doThrow(new DuplicateKeyException("duplicate")).when(institutionDoctorRepository).insertAll(institutionId, List.of(2L));
+        // when & then
+        DoctorAlreadyExistsException exception = assertThrows(DoctorAlreadyExistsException.class, () -> institutionService.replaceDoctors(institutionId, command));
+        assertEquals("Lekarze placówki zostali w międzyczasie zmienieni", exception.getMessage());
+        verify(institutionDoctorRepository, never()).deleteAll(anyLong(), anyCollection());
+        verifyNoInteractions(responseCache);
+    }
+
+    @Test
+    void replaceDoctors_InstitutionNotFound_InstitutionNotFoundExceptionThrown() {
+        // given
+        Long institutionId = 1L;
+        when(institutionRepository.existsById(institutionId)).thenReturn(false);
+        // when & then
+        InstitutionNotFoundException exception = assertThrows(InstitutionNotFoundException.class,
+                () -> institutionService.replaceDoctors(institutionId, new ReplaceInstitutionDoctorsCommand(Set.of(1L))));
+        assertEquals("Nie znaleziono instytucji o podanym id", exception.getMessage());
+        verifyNoInteractions(doctorRepository, institutionDoctorRepository, responseCache);
+    }
+
+    @Test
+    void replaceDoctors_DoctorNotFound_DoctorNotFoundExceptionThrown() {
+        // given
+        Long institutionId = 1L;
+        when(institutionRepository.existsById(institutionId)).thenReturn(true);
+        when(doctorRepository.findIdsByIdIn(Set.of(1L, 2L))).thenReturn(Set.of(1L));
+        // when & then
+        DoctorNotFoundException exception = assertThrows(DoctorNotFoundException.class,
+                () -> institutionService.replaceDoctors(institutionId, new ReplaceInstitutionDoctorsCommand(Set.of(1L, 2L))));
+        assertEquals("Nie znaleziono doktora o podanym id", exception.getMessage());
+        verifyNoInteractions(institutionDoctorRepository, responseCache);
+    }
+
     @Test
     void removeDoctorFromInstitution_DoctorAndInstitutionFound_DoctorRemovedFromInstitutionAndReturned() {
-        // todo
+        // given
+        Long doctorId = 2L;
+        Doctor doctor = createDoctor();
+        doctor.setId(doctorId);
+        Long institutionId = 1L;
+        when(institutionRepository.existsById(institutionId)).thenReturn(true);
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+        // when
+        DoctorDto result = institutionService.removeDoctorFromInstitution(institutionId, doctorId);
+        // then
+        assertEquals(2L, result.id());
+        verify(institutionDoctorRepository, times(1)).deleteAll(1L, List.of(2L));
+        verify(institutionDoctorRepository, times(1)).evictCollections(1L, List.of(2L));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.INSTITUTION, List.of(1L));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.DOCTOR, List.of(2L));
+        verifyNoMoreInteractions(institutionDoctorRepository);
     }
 
     private CreateInstitutionCommand makeCreateInstitutionCommand() {
@@ -0,0 +1,182 @@
+package com.dname074.medicalclinic.service;
+
+import com.dname074.medicalclinic.dto.PatientImportReportDto;
+import com.dname074.medicalclinic.dto.UserDto;
+import com.dname074.medicalclinic.mapper.PatientMapper;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.repository.PatientRepository;
+import com.dname074.medicalclinic.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PatientImportServiceTest {
+    PatientRepository patientRepository;
+    UserRepository userRepository;
+    TransactionTemplate transactionTemplate;
+    PatientImportService service;
+
+    @BeforeEach
+    void setup() {
+        this.patientRepository = Mockito.mock(PatientRepository.class);
+        this.userRepository = Mockito.mock(UserRepository.class);
+        this.transactionTemplate = Mockito.mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        this.service = new PatientImportService(patientRepository, userRepository, Mappers.getMapper(PatientMapper.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper().findAndRegisterModules(),
+                Mockito.mock(EntityManager.class), transactionTemplate);
+    }
+
+    @Test
+    void importPatientsFromNdjson_MixedRows_ValidRowsSavedAndErrorsReported() throws Exception {
+        // given
+        String body = """
+                {"email":"jan@onet.pl","password":"password123","idCardNo":"1","firstName":"Jan","lastName":"Kowalski","phoneNumber":"123456789","birthday":"2000-01-02"}
+                {"email":"zly-email","password":"password123","idCardNo":"2","firstName":"Anna","lastName":"Nowak","phoneNumber":"123456789","birthday":"2000-01-02"}
+                {"email":"jan@onet.pl","password":"password123","idCardNo":"3","firstName":"Piotr","lastName":"Zielinski","phoneNumber":"123456789","birthday":"2000-01-02"}
+                nie-json
+                {"email":"ewa@onet.pl","password":"password123","idCardNo":"4","firstName":"Ewa","lastName":"Istniejaca","phoneNumber":"123456789","birthday":"2000-01-02"}
+                """;
+        when(patientRepository.findEmailsByEmailIn(anyCollection())).thenReturn(Set.of());
+        when(userRepository.findNamesByFirstNameInAndLastNameIn(anyCollection(), anyCollection()))
+                .thenReturn(List.of(new UserDto(5L, "Ewa", "Istniejaca")));
+        // when
+        PatientImportReportDto result = service.importPatientsFromNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        // then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Patient>> saved = ArgumentCaptor.forClass(List.class);
+        verify(patientRepository, times(1)).saveAll(saved.capture());
+        Assertions.assertAll(
+                () -> assertEquals(1, result.imported()),
+                () -> assertEquals(4, result.rejected()),
+                () -> assertEquals(List.of(2L, 3L, 4L, 5L), result.errors().stream().map(error -> error.line()).toList()),
+                () -> assertTrue(result.errors().getFirst().messages().getFirst().startsWith("email - ")),
+                () -> assertEquals(1, saved.getValue().size()),
+                () -> assertEquals("Kowalski", saved.getValue().getFirst().getUser().getLastName())
+        );
+    }
+
+    @Test
+    void importPatientsFromCsv_HeaderInDifferentOrder_RowsMappedByColumnName() throws Exception {
+        // given
+        String body = """
+                lastName,firstName,email,password,idCardNo,phoneNumber,birthday
+                Kowalski,Jan,jan@onet.pl,password123,1,123456789,2000-01-02
+                Nowak,Anna,anna@onet.pl,password123,2,12345,2000-01-02
+                """;
+        when(patientRepository.findEmailsByEmailIn(anyCollection())).thenReturn(Set.of());
+        when(userRepository.findNamesByFirstNameInAndLastNameIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        // when
+        PatientImportReportDto result = service.importPatientsFromCsv(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, result.imported()),
+                () -> assertEquals(1, result.rejected()),
+                () -> assertEquals(3L, result.errors().getFirst().line())
+        );
+        verify(patientRepository, times(1)).findEmailsByEmailIn(List.of("jan@onet.pl"));
+    }
+
+    @Test
+    void importPatientsFromCsv_QuotedHeaderWithSpaces_RowsMappedByColumnName() throws Exception {
+        // given
+        String body = """
+                "email","password", idCardNo ,firstName,lastName,phoneNumber,birthday
+                jan@onet.pl,password123,1,Jan,Kowalski,123456789,2000-01-02
+                """;
+        when(patientRepository.findEmailsByEmailIn(anyCollection())).thenReturn(Set.of());
+        when(userRepository.findNamesByFirstNameInAndLastNameIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        // when
+        PatientImportReportDto result = service.importPatientsFromCsv(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, result.imported()),
+                () -> assertEquals(0, result.rejected())
+        );
+        verify(patientRepository, times(1)).findEmailsByEmailIn(List.of("jan@onet.pl"));
+    }
+
+    @Test
+    void importPatientsFromCsv_QuotedValueWithNewLine_RowReadAsOneRecord() throws Exception {
+        // given
+        String body = """
+                email,password,idCardNo,firstName,lastName,phoneNumber,birthday
+                jan@onet.pl,password123,"1
+                A",Jan,Kowalski,123456789,2000-01-02
+                anna@onet.pl,password123,2,Anna,Nowak,12345,2000-01-02
+                """;
+        when(patientRepository.findEmailsByEmailIn(anyCollection())).thenReturn(Set.of());
+        when(userRepository.findNamesByFirstNameInAndLastNameIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        // when
+        PatientImportReportDto result = service.importPatientsFromCsv(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, result.imported()),
+                () -> assertEquals(1, result.rejected()),
+                () -> assertEquals(4L, result.errors().getFirst().line())
+        );
+        verify(patientRepository, times(1)).findEmailsByEmailIn(List.of("jan@onet.pl"));
+    }
+
+    @Test
+    void importPatientsFromNdjson_TooManyErrors_OnlyFirstErrorsReported() throws Exception {
+        // given
+        String body = "nie-json\n".repeat(1001);
+        // when
+        PatientImportReportDto result = service.importPatientsFromNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(0, result.imported()),
+                () -> assertEquals(1001, result.rejected()),
+                () -> assertEquals(1000, result.errors().size()),
+                () -> assertEquals(1L, result.errors().getFirst().line()),
+                () -> assertEquals(1000L, result.errors().getLast().line())
+        );
+        verify(patientRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void importPatientsFromNdjson_ChunkRolledBack_AllChunkRowsReported() throws Exception {
+        // given
+        String body = """
+                {"email":"jan@onet.pl","password":"password123","idCardNo":"1","firstName":"Jan","lastName":"Kowalski","phoneNumber":"123456789","birthday":"2000-01-02"}
+                """;
+        when(patientRepository.findEmailsByEmailIn(anyCollection())).thenReturn(Set.of());
+        when(userRepository.findNamesByFirstNameInAndLastNameIn(anyCollection(), anyCollection())).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("duplicate")).when(patientRepository).flush();
+        // when
+        PatientImportReportDto result = service.importPatientsFromNdjson(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(0, result.imported()),
+                () -> assertEquals(1, result.rejected()),
+                () -> assertEquals(List.of("Nie udało się zapisać pacjenta, dane zostały w międzyczasie zmienione"),
+                        result.errors().getFirst().messages())
+        );
+    }
+}
@@ -0,0 +1,98 @@
+package com.dname074.medicalclinic.service;
+
+import com.dname074.medicalclinic.dto.PageDto;
+import com.dname074.medicalclinic.dto.PatientDto;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.User;
+import com.dname074.medicalclinic.model.Visit;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+public class PatientServiceQueryCountTest {
+    @Autowired
+    PatientService patientService;
+    @Autowired
+    EntityManager entityManager;
+
+    @BeforeEach
+    void setup() {
+        Doctor firstDoctor = createDoctor(1);
+        Doctor secondDoctor = createDoctor(2);
+        for (int i = 0; i < 20; i++) {
+            Patient patient = createPatient(i);
+            for (int j = 0; j < 3; j++) {
+                LocalDateTime startDate = LocalDateTime.of(2030, 1, 1, 8, 0, 0).plusDays(i).plusHours(j);
+                createVisit(j % 2 == 0 ? firstDoctor : secondDoctor, patient, startDate);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAll_PatientsWithVisits_ConstantNumberOfStatementsExecuted() {
+        // given
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        // when
+        PageDto<PatientDto> result = patientService.findAll(PageRequest.of(0, 10));
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(10, result.content().size()),
+                () -> assertEquals(20, result.totalElements()),
+                () -> assertEquals(3, result.content().getFirst().visits().size()),
+                () -> assertEquals("Jan", result.content().getFirst().visits().getFirst().doctor().user().firstName()),
+                () -> assertEquals(3, statistics.getPrepareStatementCount())
+        );
+    }
+
+    private Doctor createDoctor(int number) {
+        Doctor doctor = new Doctor();
+        doctor.setEmail("doctor" + number + "@onet.pl");
+        doctor.setPassword("password123");
+        doctor.setSpecialization(Specialization.CARDIOLOGIST);
+        doctor.setUser(new User(null, "Jan", "Doktor" + number));
+        entityManager.persist(doctor);
+        return doctor;
+    }
+
+    private Patient createPatient(int number) {
+        Patient patient = new Patient();
+        patient.setEmail("patient" + number + "@onet.pl");
+        patient.setPassword("password123");
+        patient.setIdCardNo("ABC" + number);
+        patient.setPhoneNumber("555555555");
+        patient.setBirthday(LocalDate.of(1990, 1, 1));
+        patient.setUser(new User(null, "Anna", "Pacjent" + number));
+        entityManager.persist(patient);
+        return patient;
+    }
+
+    private void createVisit(Doctor doctor, Patient patient, LocalDateTime startDate) {
+        Visit visit = new Visit();
+        visit.setStartDate(startDate);
+        visit.setEndDate(startDate.plusHours(1));
+        visit.setDoctor(doctor);
+        visit.setPatient(patient);
+        entityManager.persist(visit);
+    }
+}
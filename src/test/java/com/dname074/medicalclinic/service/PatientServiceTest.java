@@ -1,38 +1,55 @@
 package com.dname074.medicalclinic.service;
 
 import com.dname074.medicalclinic.argumentmatcher.PatientArgumentMatcher;
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
+import com.dname074.medicalclinic.dto.CursorPageDto;
 import com.dname074.medicalclinic.dto.PageDto;
 import com.dname074.medicalclinic.dto.PatientDto;
 import com.dname074.medicalclinic.dto.command.ChangePasswordCommand;
 import com.dname074.medicalclinic.dto.command.CreatePatientCommand;
+import com.dname074.medicalclinic.exception.pagination.InvalidCursorException;
 import com.dname074.medicalclinic.exception.patient.PatientAlreadyExistsException;
 import com.dname074.medicalclinic.exception.patient.PatientNotFoundException;
 import com.dname074.medicalclinic.exception.user.UserAlreadyExistsException;
+import com.dname074.medicalclinic.mapper.CursorMapper;
 import com.dname074.medicalclinic.mapper.PageMapper;
 import com.dname074.medicalclinic.mapper.PatientMapper;
 import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.Specialization;
 import com.dname074.medicalclinic.model.User;
 import com.dname074.medicalclinic.repository.PatientRepository;
 import com.dname074.medicalclinic.repository.UserRepository;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
+import com.dname074.medicalclinic.waitlist.WaitlistQueue;
+import com.dname074.medicalclinic.waitlist.WaitlistTicket;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mapstruct.factory.Mappers;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -45,6 +62,11 @@ public class PatientServiceTest {
     UserRepository userRepository;
     PatientMapper patientMapper;
     PageMapper pageMapper;
+    ResponseCache responseCache;
+    WaitlistEntryRepository waitlistEntryRepository;
+    WaitlistQueue waitlistQueue;
+    ObjectMapper objectMapper;
+    EntityManager entityManager;
 
     @BeforeEach
     void setup() {
@@ -52,28 +74,89 @@ public class PatientServiceTest {
         this.patientRepository = Mockito.mock(PatientRepository.class);
         this.patientMapper = Mappers.getMapper(PatientMapper.class);
         this.pageMapper = Mappers.getMapper(PageMapper.class);
-        this.service = new PatientService(patientRepository, userRepository, patientMapper, pageMapper);
+        this.responseCache = Mockito.mock(ResponseCache.class);
+        this.waitlistEntryRepository = Mockito.mock(WaitlistEntryRepository.class);
+        this.waitlistQueue = Mockito.mock(WaitlistQueue.class);
+        this.objectMapper = new ObjectMapper().findAndRegisterModules();
+        this.entityManager = Mockito.mock(EntityManager.class);
+        this.service = new PatientService(patientRepository, userRepository, patientMapper, pageMapper, new CursorMapper(),
+                responseCache, waitlistEntryRepository, waitlistQueue, objectMapper, entityManager);
     }
 
     @Test
     void findAll_PatientsExists_PageReturned() {
         // given
         Patient patient = createPatient();
+        patient.setId(1L);
         Pageable pageRequest = PageRequest.of(0, 1);
-        Page<Patient> page = new PageImpl<>(List.of(patient), pageRequest, 1L);
-        when(patientRepository.findAllWithUsers(pageRequest)).thenReturn(page);
+        Page<Long> idsPage = new PageImpl<>(List.of(patient.getId()), pageRequest, 1L);
+        when(patientRepository.findAllIds(pageRequest)).thenReturn(idsPage);
+        when(patientRepository.findAllWithVisitsByIdIn(idsPage.getContent())).thenReturn(List.of(patient));
         // when
         PageDto<PatientDto> patients = service.findAll(pageRequest);
         // then
         Assertions.assertAll(
                 () -> assertEquals(1, patients.totalPages()),
                 () -> assertEquals(1, patients.totalElements()),
-                () -> assertFalse(patients.content().isEmpty())
+                () -> assertFalse(patients.content().isEmpty()),
+                () -> assertEquals(patient.getId(), patients.content().getFirst().id())
         );
-        verify(patientRepository, times(1)).findAllWithUsers(pageRequest);
+        verify(patientRepository, times(1)).findAllIds(pageRequest);
+        verify(patientRepository, times(1)).findAllWithVisitsByIdIn(List.of(1L));
         verifyNoMoreInteractions(patientRepository);
     }
 
+    @Test
+    void findAllAfter_MorePatientsExist_NextCursorReturned() {
+        // given
+        Patient patient = createPatient();
+        patient.setId(1L);
+        CursorMapper cursorMapper = new CursorMapper();
+        when(patientRepository.findIdsAfter(0L, PageRequest.ofSize(2))).thenReturn(List.of(1L, 2L));
+        when(patientRepository.findAllWithVisitsByIdIn(List.of(1L))).thenReturn(List.of(patient));
+        // when
+        CursorPageDto<PatientDto> result = service.findAllAfter(null, 1, false);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, result.content().size()),
+                () -> assertEquals(1L, result.content().getFirst().id()),
+                () -> assertEquals(1L, cursorMapper.toId(result.nextCursor())),
+                () -> assertNull(result.totalElements())
+        );
+        verify(patientRepository, times(1)).findIdsAfter(0L, PageRequest.ofSize(2));
+        verify(patientRepository, times(1)).findAllWithVisitsByIdIn(List.of(1L));
+        verifyNoMoreInteractions(patientRepository);
+    }
+
+    @Test
+    void findAllAfter_LastPageWithCount_NoNextCursorReturned() {
+        // given
+        Patient patient = createPatient();
+        patient.setId(2L);
+        String cursor = new CursorMapper().toCursor(1L);
+        when(patientRepository.findIdsAfter(1L, PageRequest.ofSize(21))).thenReturn(List.of(2L));
+        when(patientRepository.findAllWithVisitsByIdIn(List.of(2L))).thenReturn(List.of(patient));
+        when(patientRepository.count()).thenReturn(2L);
+        // when
+        CursorPageDto<PatientDto> result = service.findAllAfter(cursor, 20, true);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, result.content().size()),
+                () -> assertNull(result.nextCursor()),
+                () -> assertEquals(2L, result.totalElements())
+        );
+    }
+
+    @Test
+    void findAllAfter_InvalidCursor_ExceptionThrown() {
+        // given
+        String cursor = "nie-kursor";
+        // when & then
+        InvalidCursorException exception = assertThrows(InvalidCursorException.class, () -> service.findAllAfter(cursor, 20, false));
+        assertEquals("Podany kursor stronicowania jest nieprawidłowy", exception.getMessage());
+        verifyNoInteractions(patientRepository);
+    }
+
     @Test
     void getPatientDtoById_PatientFound_PatientReturned() {
         // given
@@ -162,6 +245,32 @@ public class PatientServiceTest {
         verifyNoMoreInteractions(patientRepository, userRepository);
     }
 
+    @Test
+    void exportPatients_PatientsExist_OneJsonLinePerPatientWritten() throws Exception {
+        // given
+        Patient first = createPatient();
+        first.setId(1L);
+        Patient second = createPatient();
+        second.setId(2L);
+        when(patientRepository.streamAllWithUsers()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // when
+        long result = service.exportPatients(outputStream);
+        // then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertAll(
+                () -> assertEquals(2, result),
+                () -> assertEquals(2, lines.length),
+                () -> assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong()),
+                () -> assertEquals(2L, objectMapper.readTree(lines[1]).get("id").asLong()),
+                () -> assertEquals("Jan", objectMapper.readTree(lines[1]).get("user").get("firstName").asText()),
+                () -> assertFalse(objectMapper.readTree(lines[0]).has("visits"))
+        );
+        verify(patientRepository, times(1)).streamAllWithUsers();
+        verifyNoMoreInteractions(patientRepository);
+        verifyNoInteractions(entityManager);
+    }
+
     @Test
     void deletePatientById_PatientExists_PatientDeletedAndReturned() {
         // given
@@ -182,10 +291,28 @@ public class PatientServiceTest {
         );
         verify(patientRepository, times(1)).findById(1L);
         verify(patientRepository, times(1)).delete(patient);
-        verifyNoMoreInteractions(patientRepository);
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.PATIENT, List.of(1L));
+        verifyNoMoreInteractions(patientRepository, responseCache);
         verifyNoInteractions(userRepository);
     }
 
+    @Test
+    void deletePatientById_PatientOnWaitlist_WaitlistEntryDeletedAndRemovedFromQueue() {
+        // given
+        Long patientId = 1L;
+        Patient patient = createPatient();
+        WaitlistTicket ticket = new WaitlistTicket(5L, patientId, null, Specialization.SURGEON, 0);
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(waitlistEntryRepository.findTicketsByPatientId(patientId)).thenReturn(List.of(ticket));
+        // when
+        service.deletePatientById(patientId);
+        // then
+        InOrder inOrder = inOrder(waitlistEntryRepository, patientRepository);
+        inOrder.verify(waitlistEntryRepository).deleteEntriesByPatientId(1L);
+        inOrder.verify(patientRepository).delete(patient);
+        verify(waitlistQueue, times(1)).removeAfterCommit(ticket);
+    }
+
     @Test
     void deletePatientById_PatientNotFound_ExceptionThrown() {
         // given
@@ -221,7 +348,8 @@ public class PatientServiceTest {
         );
         verify(patientRepository, times(1)).findById(1L);
         verify(patientRepository, times(1)).save(argThat(new PatientArgumentMatcher(patient)));
-        verifyNoMoreInteractions(patientRepository);
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.PATIENT, List.of(1L));
+        verifyNoMoreInteractions(patientRepository, responseCache);
         verifyNoInteractions(userRepository);
     }
 
@@ -0,0 +1,34 @@
+package com.dname074.medicalclinic.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+public class ServiceMetricsTest {
+    @Autowired
+    DoctorService doctorService;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void findAllDoctors_MethodCalled_ServiceTimerRecorded() {
+        // given
+        PageRequest pageRequest = PageRequest.of(0, 10);
+        // when
+        doctorService.findAllDoctors(pageRequest);
+        // then
+        Timer timer = meterRegistry.find("medicalclinic.service")
+                .tag("class", DoctorService.class.getName())
+                .tag("method", "findAllDoctors")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+}
@@ -0,0 +1,131 @@
+package com.dname074.medicalclinic.service;
+
+import com.dname074.medicalclinic.exception.visit.VisitAlreadyTakenException;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.User;
+import com.dname074.medicalclinic.model.Visit;
+import com.dname074.medicalclinic.repository.DoctorRepository;
+import com.dname074.medicalclinic.repository.PatientRepository;
+import com.dname074.medicalclinic.repository.VisitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+public class VisitServiceConcurrencyTest {
+    private static final int THREADS = 64;
+
+    @Autowired
+    VisitService visitService;
+    @Autowired
+    VisitRepository visitRepository;
+    @Autowired
+    DoctorRepository doctorRepository;
+    @Autowired
+    PatientRepository patientRepository;
+
+    Doctor doctor;
+    Visit visit;
+    List<Patient> patients;
+
+    @BeforeEach
+    void setup() {
+        doctor = doctorRepository.save(createDoctor());
+        Visit newVisit = new Visit();
+        newVisit.setStartDate(LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS));
+        newVisit.setEndDate(newVisit.getStartDate().plusHours(1));
+        newVisit.setDoctor(doctor);
+        visit = visitRepository.save(newVisit);
+        patients = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            patients.add(patientRepository.save(createPatient(i)));
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        visitRepository.deleteById(visit.getId());
+        patientRepository.deleteAll(patients);
+        doctorRepository.delete(doctor);
+    }
+
+    @Test
+    void assign_SameVisitFromManyThreads_ExactlyOnePatientAssigned() throws Exception {
+        // given
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        Queue<Long> winners = new ConcurrentLinkedQueue<>();
+        List<Future<?>> results = new ArrayList<>();
+        // when
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (Patient patient : patients) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        visitService.assign(visit.getId(), patient.getId());
+                        winners.add(patient.getId());
+                    } catch (VisitAlreadyTakenException exception) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        }
+        // then
+        Long assignedPatientId = visitRepository.findWithDoctorAndPatientById(visit.getId())
+                .orElseThrow()
+                .getPatient()
+                .getId();
+        Assertions.assertAll(
+                () -> assertEquals(1, winners.size()),
+                () -> assertEquals(THREADS - 1, conflicts.get()),
+                () -> assertTrue(winners.contains(assignedPatientId))
+        );
+    }
+
+    private Doctor createDoctor() {
+        Doctor newDoctor = new Doctor();
+        newDoctor.setEmail("concurrency.doctor@onet.pl");
+        newDoctor.setPassword("password123");
+        newDoctor.setSpecialization(Specialization.CARDIOLOGIST);
+        newDoctor.setUser(new User(null, "Jan", "Wspolbiezny"));
+        return newDoctor;
+    }
+
+    private Patient createPatient(int number) {
+        Patient patient = new Patient();
+        patient.setEmail("concurrency.patient" + number + "@onet.pl");
+        patient.setPassword("password123");
+        patient.setIdCardNo("CON" + number);
+        patient.setPhoneNumber("555555555");
+        patient.setBirthday(LocalDate.of(1990, 1, 1));
+        patient.setUser(new User(null, "Anna", "Wspolbiezna" + number));
+        return patient;
+    }
+}
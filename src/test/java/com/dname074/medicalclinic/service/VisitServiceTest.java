@@ -1,10 +1,18 @@
 package com.dname074.medicalclinic.service;
 
 import com.dname074.medicalclinic.argumentmatcher.VisitArgumentMatcher;
+import com.dname074.medicalclinic.cache.ResponseCache;
+import com.dname074.medicalclinic.cache.ResponseRegion;
+import com.dname074.medicalclinic.dto.AvailableVisitDto;
+import com.dname074.medicalclinic.dto.CalendarVisitDto;
+import com.dname074.medicalclinic.dto.FreeSlotDto;
 import com.dname074.medicalclinic.dto.PageDto;
+import com.dname074.medicalclinic.dto.ScheduleDto;
 import com.dname074.medicalclinic.dto.VisitDto;
+import com.dname074.medicalclinic.dto.VisitHoldDto;
 import com.dname074.medicalclinic.dto.command.CreateDoctorCommand;
 import com.dname074.medicalclinic.dto.command.CreatePatientCommand;
+import com.dname074.medicalclinic.dto.command.CreateScheduleCommand;
 import com.dname074.medicalclinic.dto.command.CreateVisitCommand;
 import com.dname074.medicalclinic.exception.doctor.DoctorNotFoundException;
 import com.dname074.medicalclinic.exception.patient.PatientNotFoundException;
@@ -12,6 +20,12 @@ import com.dname074.medicalclinic.exception.visit.InvalidVisitException;
 import com.dname074.medicalclinic.exception.visit.VisitAlreadyTakenException;
 import com.dname074.medicalclinic.exception.visit.VisitExpiredException;
 import com.dname074.medicalclinic.exception.visit.VisitNotFoundException;
+import com.dname074.medicalclinic.index.AvailableVisit;
+import com.dname074.medicalclinic.hold.VisitHold;
+import com.dname074.medicalclinic.hold.VisitHoldRegistry;
+import com.dname074.medicalclinic.index.AvailableVisitIndex;
+import com.dname074.medicalclinic.index.DoctorVisitIndex;
+import com.dname074.medicalclinic.mapper.CursorMapper;
 import com.dname074.medicalclinic.mapper.DoctorMapper;
 import com.dname074.medicalclinic.mapper.PageMapper;
 import com.dname074.medicalclinic.mapper.PatientMapper;
@@ -23,7 +37,10 @@ import com.dname074.medicalclinic.model.Visit;
 import com.dname074.medicalclinic.repository.DoctorRepository;
 import com.dname074.medicalclinic.repository.PatientRepository;
 import com.dname074.medicalclinic.repository.VisitRepository;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
 import com.dname074.medicalclinic.validation.VisitValidator;
+import com.dname074.medicalclinic.waitlist.WaitlistQueue;
+import com.dname074.medicalclinic.waitlist.WaitlistTicket;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,12 +52,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 import java.time.Clock;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -57,6 +77,12 @@ public class VisitServiceTest {
     PageMapper pageMapper;
     PatientMapper patientMapper;
     DoctorMapper doctorMapper;
+    DoctorVisitIndex doctorVisitIndex;
+    AvailableVisitIndex availableVisitIndex;
+    ResponseCache responseCache;
+    VisitHoldRegistry visitHoldRegistry;
+    WaitlistEntryRepository waitlistEntryRepository;
+    WaitlistQueue waitlistQueue;
     Clock currentDate = Clock.fixed(
             LocalDateTime.of(2026, 2, 15, 12, 0, 0)
                     .atZone(ZoneId.systemDefault())
@@ -74,8 +100,15 @@ public class VisitServiceTest {
         this.pageMapper = Mappers.getMapper(PageMapper.class);
         this.patientMapper = Mappers.getMapper(PatientMapper.class);
         this.doctorMapper = Mappers.getMapper(DoctorMapper.class);
-        this.visitService = new VisitService(visitRepository, doctorRepository, patientRepository,
-                visitMapper, validator, pageMapper, currentDate);
+        this.doctorVisitIndex = Mockito.mock(DoctorVisitIndex.class);
+        this.availableVisitIndex = Mockito.mock(AvailableVisitIndex.class);
+        this.responseCache = Mockito.mock(ResponseCache.class);
+        this.visitHoldRegistry = Mockito.mock(VisitHoldRegistry.class);
+        this.waitlistEntryRepository = Mockito.mock(WaitlistEntryRepository.class);
+        this.waitlistQueue = Mockito.mock(WaitlistQueue.class);
+        this.visitService = new VisitService(visitRepository, doctorRepository, patientRepository, waitlistEntryRepository,
+                visitMapper, validator, pageMapper, new CursorMapper(), doctorVisitIndex, availableVisitIndex, responseCache,
+                visitHoldRegistry, waitlistQueue, currentDate);
     }
 
     @Test
@@ -105,6 +138,108 @@ public class VisitServiceTest {
         verifyNoInteractions(doctorRepository, patientRepository);
     }
 
+    @Test
+    void getDoctorCalendar_DoctorFound_CalendarReturned() {
+        // given
+        Long doctorId = 1L;
+        LocalDateTime from = LocalDateTime.of(2026, 3, 1, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 4, 1, 0, 0, 0);
+        CalendarVisitDto calendarVisit = new CalendarVisitDto(2L, LocalDateTime.of(2026, 3, 3, 10, 0, 0),
+                LocalDateTime.of(2026, 3, 3, 10, 30, 0), true);
+        when(doctorRepository.existsById(doctorId)).thenReturn(true);
+        when(visitRepository.findCalendarByDoctorId(doctorId, from, to)).thenReturn(List.of(calendarVisit));
+        // when
+        List<CalendarVisitDto> result = visitService.getDoctorCalendar(doctorId, from, to);
+        // then
+        assertEquals(List.of(calendarVisit), result);
+        verify(validator, times(1)).validateSearchRange(from, to);
+        verify(visitRepository, times(1)).findCalendarByDoctorId(1L, from, to);
+        verifyNoMoreInteractions(visitRepository);
+    }
+
+    @Test
+    void getDoctorCalendar_DoctorNotFound_DoctorNotFoundExceptionThrown() {
+        // given
+        Long doctorId = 1L;
+        LocalDateTime from = LocalDateTime.of(2026, 3, 1, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 4, 1, 0, 0, 0);
+        when(doctorRepository.existsById(doctorId)).thenReturn(false);
+        // when & then
+        DoctorNotFoundException exception = assertThrows(DoctorNotFoundException.class, () -> visitService.getDoctorCalendar(doctorId, from, to));
+        assertEquals("Nie znaleziono doktora o podanym id", exception.getMessage());
+        verifyNoInteractions(visitRepository);
+    }
+
+    @Test
+    void findFirstFreeSlot_AfterInPast_SearchStartsAtCurrentDate() {
+        // given
+        Long doctorId = 1L;
+        LocalDateTime now = LocalDateTime.now(currentDate);
+        when(doctorRepository.existsById(doctorId)).thenReturn(true);
+        when(doctorVisitIndex.findFirstFreeSlot(doctorId, now, 30, now.plusDays(31)))
+                .thenReturn(Optional.of(LocalDateTime.of(2026, 2, 16, 8, 0, 0)));
+        // when
+        FreeSlotDto result = visitService.findFirstFreeSlot(doctorId, LocalDateTime.of(2026, 1, 1, 0, 0, 0), 30);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1L, result.doctorId()),
+                () -> assertEquals(LocalDateTime.of(2026, 2, 16, 8, 0, 0), result.startDate()),
+                () -> assertEquals(LocalDateTime.of(2026, 2, 16, 8, 30, 0), result.endDate())
+        );
+        verify(validator, times(1)).validateSlotLength(30);
+        verifyNoInteractions(visitRepository);
+    }
+
+    @Test
+    void findFirstFreeSlot_NoFreeSlot_VisitNotFoundExceptionThrown() {
+        // given
+        Long doctorId = 1L;
+        LocalDateTime after = LocalDateTime.of(2026, 3, 1, 8, 0, 0);
+        when(doctorRepository.existsById(doctorId)).thenReturn(true);
+        when(doctorVisitIndex.findFirstFreeSlot(doctorId, after, 15, after.plusDays(31))).thenReturn(Optional.empty());
+        // when & then
+        VisitNotFoundException exception = assertThrows(VisitNotFoundException.class, () -> visitService.findFirstFreeSlot(doctorId, after, 15));
+        assertEquals("Doktor nie ma wolnego terminu w ciągu 31 dni", exception.getMessage());
+    }
+
+    @Test
+    void findAvailableVisits_TownGiven_VisitsOfDoctorsFromTownReturned() {
+        // given
+        LocalDateTime from = LocalDateTime.of(2026, 3, 2, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 9, 0, 0, 0);
+        AvailableVisit availableVisit = new AvailableVisit(1L, 1L, Specialization.CARDIOLOGIST,
+                LocalDateTime.of(2026, 3, 3, 10, 0, 0), LocalDateTime.of(2026, 3, 3, 10, 30, 0));
+        when(availableVisitIndex.findDoctorIdsByTown("Warszawa")).thenReturn(Set.of(1L));
+        when(availableVisitIndex.find(Specialization.CARDIOLOGIST, Set.of(1L), from, to)).thenReturn(List.of(availableVisit));
+        // when
+        List<AvailableVisitDto> result = visitService.findAvailableVisits(Specialization.CARDIOLOGIST, "Warszawa", from, to);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1, result.size()),
+                () -> assertEquals(1L, result.getFirst().id()),
+                () -> assertEquals(1L, result.getFirst().doctorId()),
+                () -> assertEquals(availableVisit.startDate(), result.getFirst().startDate())
+        );
+        verify(validator, times(1)).validateSearchRange(from, to);
+        verify(availableVisitIndex, times(1)).findDoctorIdsByTown("Warszawa");
+        verify(availableVisitIndex, times(1)).find(Specialization.CARDIOLOGIST, Set.of(1L), from, to);
+        verifyNoInteractions(doctorRepository, visitRepository);
+    }
+
+    @Test
+    void findAvailableVisits_TownNotGiven_DoctorsNotFiltered() {
+        // given
+        LocalDateTime from = LocalDateTime.of(2026, 3, 2, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 9, 0, 0, 0);
+        when(availableVisitIndex.find(Specialization.SURGEON, null, from, to)).thenReturn(List.of());
+        // when
+        List<AvailableVisitDto> result = visitService.findAvailableVisits(Specialization.SURGEON, null, from, to);
+        // then
+        assertTrue(result.isEmpty());
+        verify(availableVisitIndex, times(1)).find(Specialization.SURGEON, null, from, to);
+        verifyNoInteractions(doctorRepository, visitRepository);
+    }
+
     @Test
     void addAvailableVisit_DoctorFoundAndVisitDateCorrect_VisitReturned() {
         // given
@@ -117,7 +252,8 @@ public class VisitServiceTest {
         updatedDoctor.setVisits(List.of(updatedVisit));
         updatedVisit.setDoctor(doctor);
         when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
-        doNothing().when(validator).validateVisitDate(updatedVisit.getStartDate(), updatedVisit.getEndDate());
+        doNothing().when(validator).validateVisitDate(doctorId, updatedVisit.getStartDate(), updatedVisit.getEndDate());
+        when(doctorVisitIndex.reserve(doctorId, updatedVisit.getStartDate(), updatedVisit.getEndDate())).thenReturn(true);
         when(visitRepository.save(any())).thenReturn(updatedVisit);
         // when
         VisitDto result = visitService.addAvailableVisit(createVisitCommand);
@@ -132,39 +268,164 @@ public class VisitServiceTest {
                 () -> assertEquals(1L, result.doctor().id())
         );
         verify(doctorRepository, times(1)).findById(1L);
-        verify(validator, times(1)).validateVisitDate(updatedVisit.getStartDate(), updatedVisit.getEndDate());
+        verify(validator, times(1)).validateVisitDate(1L, updatedVisit.getStartDate(), updatedVisit.getEndDate());
+        verify(doctorVisitIndex, times(1)).reserve(1L, updatedVisit.getStartDate(), updatedVisit.getEndDate());
         verify(visitRepository, times(1)).save(argThat(new VisitArgumentMatcher(updatedVisit)));
-        verifyNoMoreInteractions(visitRepository, doctorRepository, validator);
+        verifyNoMoreInteractions(visitRepository, doctorRepository, validator, doctorVisitIndex);
         verifyNoInteractions(patientRepository);
     }
 
+    @Test
+    void addAvailableVisit_PatientWaitingForDoctor_VisitAssignedFromWaitlist() {
+        // given
+        CreateVisitCommand createVisitCommand = makeCreateVisitCommand();
+        Doctor doctor = createDoctor();
+        doctor.setVisits(new ArrayList<>());
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(doctor));
+        when(doctorVisitIndex.reserve(1L, createVisitCommand.startDate(), createVisitCommand.endDate())).thenReturn(true);
+        when(waitlistQueue.poll(1L, Specialization.DERMATOLOGIST))
+                .thenReturn(Optional.of(new WaitlistTicket(5L, 1L, 1L, null, 0)));
+        when(waitlistEntryRepository.deleteEntryById(5L)).thenReturn(1);
+        when(patientRepository.getReferenceById(1L)).thenReturn(createPatient());
+        when(visitRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        // when
+        VisitDto result = visitService.addAvailableVisit(createVisitCommand);
+        // then
+        assertEquals(1L, result.patient().id());
+        verify(waitlistEntryRepository, times(1)).deleteEntryById(5L);
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.PATIENT, List.of(1L));
+        verify(availableVisitIndex, never()).addAfterCommit(anyList());
+    }
+
     @Test
     void addAvailableVisit_DateIncorrect_InvalidVisitExceptionThrown() {
         // given
         CreateVisitCommand createVisitCommand = makeCreateVisitCommand();
-        doThrow(InvalidVisitException.class).when(validator).validateVisitDate(any(), any());
+        doThrow(InvalidVisitException.class).when(validator).validateVisitDate(any(), any(), any());
         // when & then
         assertThrows(InvalidVisitException.class, () -> visitService.addAvailableVisit(createVisitCommand));
-        verify(validator, times(1)).validateVisitDate(createVisitCommand.startDate(), createVisitCommand.endDate());
+        verify(validator, times(1)).validateVisitDate(createVisitCommand.doctorId(), createVisitCommand.startDate(), createVisitCommand.endDate());
         verifyNoMoreInteractions(validator);
-        verifyNoInteractions(patientRepository, doctorRepository, visitRepository);
+        verifyNoInteractions(patientRepository, doctorRepository, visitRepository, doctorVisitIndex);
     }
 
     @Test
     void addAvailableVisit_DoctorNotFound_DoctorNotFoundExceptionThrown() {
         // given
         CreateVisitCommand createVisitCommand = makeCreateVisitCommand();
-        doNothing().when(validator).validateVisitDate(createVisitCommand.startDate(), createVisitCommand.endDate());
+        doNothing().when(validator).validateVisitDate(createVisitCommand.doctorId(), createVisitCommand.startDate(), createVisitCommand.endDate());
         when(doctorRepository.findById(anyLong())).thenReturn(Optional.empty());
         // when & then
         DoctorNotFoundException exception = assertThrows(DoctorNotFoundException.class, () -> visitService.addAvailableVisit(createVisitCommand));
         assertEquals("Nie znaleziono doktora o podanym id", exception.getMessage());
-        verify(validator, times(1)).validateVisitDate(createVisitCommand.startDate(), createVisitCommand.endDate());
+        verify(validator, times(1)).validateVisitDate(createVisitCommand.doctorId(), createVisitCommand.startDate(), createVisitCommand.endDate());
         verify(doctorRepository, times(1)).findById(createVisitCommand.doctorId());
         verifyNoMoreInteractions(validator, doctorRepository);
+        verifyNoInteractions(patientRepository, visitRepository, doctorVisitIndex);
+    }
+
+    @Test
+    void addAvailableVisit_DoctorScheduleTakenInTheMeantime_InvalidVisitExceptionThrown() {
+        // given
+        CreateVisitCommand createVisitCommand = makeCreateVisitCommand();
+        Doctor doctor = createDoctor();
+        doNothing().when(validator).validateVisitDate(createVisitCommand.doctorId(), createVisitCommand.startDate(), createVisitCommand.endDate());
+        when(doctorRepository.findById(createVisitCommand.doctorId())).thenReturn(Optional.of(doctor));
+        when(doctorVisitIndex.reserve(doctor.getId(), createVisitCommand.startDate(), createVisitCommand.endDate())).thenReturn(false);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> visitService.addAvailableVisit(createVisitCommand));
+        assertEquals("Data wizyty pokrywa się z już istniejącą", exception.getMessage());
+        verify(doctorVisitIndex, times(1)).reserve(1L, createVisitCommand.startDate(), createVisitCommand.endDate());
+        verifyNoMoreInteractions(doctorVisitIndex);
         verifyNoInteractions(patientRepository, visitRepository);
     }
 
+    @Test
+    void addSchedule_DoctorFoundAndScheduleCorrect_VisitsSavedAndScheduleReturned() {
+        // given
+        Long doctorId = 1L;
+        Doctor doctor = createDoctor();
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 8),
+                Set.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), LocalTime.of(8, 0), LocalTime.of(10, 0), 30);
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+        when(doctorVisitIndex.reserveAll(eq(doctorId), anyList())).thenReturn(true);
+        // when
+        ScheduleDto result = visitService.addSchedule(doctorId, createScheduleCommand);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1L, result.doctorId()),
+                () -> assertEquals(8, result.createdVisits()),
+                () -> assertEquals(LocalDateTime.of(2026, 3, 2, 8, 0, 0), result.firstVisitStartDate()),
+                () -> assertEquals(LocalDateTime.of(2026, 3, 4, 10, 0, 0), result.lastVisitEndDate())
+        );
+        verify(validator, times(1)).validateSchedule(createScheduleCommand);
+        verify(doctorRepository, times(1)).findById(1L);
+        verify(doctorVisitIndex, times(1)).reserveAll(eq(1L), argThat(visits -> visits.size() == 8));
+        verify(visitRepository, times(1)).saveAll(argThat((Iterable<Visit> visits) -> visits.iterator().next().getDoctor() == doctor));
+        verifyNoMoreInteractions(validator, doctorRepository, doctorVisitIndex, visitRepository);
+        verifyNoInteractions(patientRepository);
+    }
+
+    @Test
+    void addSchedule_WaitlistEntryRemovedInTheMeantime_NextPatientAssignedAndRestOfVisitsAvailable() {
+        // given
+        Long doctorId = 1L;
+        Doctor doctor = createDoctor();
+        Patient patient = createPatient();
+        patient.setId(2L);
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 8),
+                Set.of(DayOfWeek.MONDAY), LocalTime.of(8, 0), LocalTime.of(10, 0), 30);
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(doctor));
+        when(doctorVisitIndex.reserveAll(eq(doctorId), anyList())).thenReturn(true);
+        when(waitlistQueue.poll(doctorId, Specialization.DERMATOLOGIST)).thenReturn(
+                Optional.of(new WaitlistTicket(5L, 1L, null, Specialization.DERMATOLOGIST, 3)),
+                Optional.of(new WaitlistTicket(6L, 2L, doctorId, null, 0)),
+                Optional.empty());
+        when(waitlistEntryRepository.deleteEntryById(5L)).thenReturn(0);
+        when(waitlistEntryRepository.deleteEntryById(6L)).thenReturn(1);
+        when(patientRepository.getReferenceById(2L)).thenReturn(patient);
+        // when
+        ScheduleDto result = visitService.addSchedule(doctorId, createScheduleCommand);
+        // then
+        assertEquals(4, result.createdVisits());
+        verify(patientRepository, never()).getReferenceById(1L);
+        verify(visitRepository, times(1)).saveAll(argThat((Iterable<Visit> visits) -> visits.iterator().next().getPatient() == patient));
+        verify(availableVisitIndex, times(1)).addAfterCommit(argThat(visits -> visits.size() == 3
+                && visits.stream().allMatch(visit -> visit.getPatient() == null)));
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.PATIENT, List.of(2L));
+        verify(doctorVisitIndex, times(1)).book(doctorId, LocalDateTime.of(2026, 3, 2, 8, 0, 0), LocalDateTime.of(2026, 3, 2, 8, 30, 0));
+    }
+
+    @Test
+    void addSchedule_VisitDateTaken_InvalidVisitExceptionThrown() {
+        // given
+        Long doctorId = 1L;
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 8),
+                Set.of(DayOfWeek.MONDAY), LocalTime.of(8, 0), LocalTime.of(10, 0), 30);
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.of(createDoctor()));
+        when(doctorVisitIndex.reserveAll(eq(doctorId), anyList())).thenReturn(false);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> visitService.addSchedule(doctorId, createScheduleCommand));
+        assertEquals("Data wizyty pokrywa się z już istniejącą", exception.getMessage());
+        verify(doctorVisitIndex, times(1)).reserveAll(eq(1L), anyList());
+        verifyNoInteractions(visitRepository, patientRepository);
+    }
+
+    @Test
+    void addSchedule_DoctorNotFound_DoctorNotFoundExceptionThrown() {
+        // given
+        Long doctorId = 1L;
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 8),
+                Set.of(DayOfWeek.MONDAY), LocalTime.of(8, 0), LocalTime.of(10, 0), 30);
+        when(doctorRepository.findById(doctorId)).thenReturn(Optional.empty());
+        // when & then
+        DoctorNotFoundException exception = assertThrows(DoctorNotFoundException.class, () -> visitService.addSchedule(doctorId, createScheduleCommand));
+        assertEquals("Nie znaleziono doktora o podanym id", exception.getMessage());
+        verify(validator, times(1)).validateSchedule(createScheduleCommand);
+        verify(doctorRepository, times(1)).findById(1L);
+        verifyNoInteractions(doctorVisitIndex, visitRepository, patientRepository);
+    }
+
     @Test
     void assign_VisitFoundPatientFoundAndDateNotExpired_VisitAssignedAndVisitReturned() {
         // given
@@ -177,20 +438,96 @@ public class VisitServiceTest {
         Patient updatedPatient = createPatient();
         updatedPatient.setVisits(new ArrayList<>());
         updatedVisit.setPatient(updatedPatient);
+        updatedVisit.setDoctor(createDoctor());
         updatedPatient.addVisit(updatedVisit);
         when(visitRepository.findById(visitId)).thenReturn(Optional.of(visit));
         when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
-        when(visitRepository.save(visit)).thenReturn(visit);
+        when(visitRepository.assignPatientIfFree(visitId, patient)).thenReturn(1);
+        when(visitRepository.findWithDoctorAndPatientById(visitId)).thenReturn(Optional.of(updatedVisit));
         // when
         VisitDto result = visitService.assign(visitId, patientId);
         // then
         Assertions.assertAll(
                 () -> assertEquals(updatedVisit.getStartDate(), result.startDate()),
-                () -> assertEquals(updatedVisit.getEndDate(), result.endDate())
+                () -> assertEquals(updatedVisit.getEndDate(), result.endDate()),
+                () -> assertEquals(1L, result.patient().id())
         );
         verify(visitRepository, times(1)).findById(1L);
         verify(patientRepository, times(1)).findById(1L);
-        verify(visitRepository, times(1)).save(argThat(new VisitArgumentMatcher(updatedVisit)));
+        verify(visitRepository, times(1)).assignPatientIfFree(1L, patient);
+        verify(visitRepository, times(1)).findWithDoctorAndPatientById(1L);
+        verify(responseCache, times(1)).evictAfterCommit(ResponseRegion.PATIENT, List.of(1L));
+        verify(visitHoldRegistry, times(1)).releaseAfterCommit(1L, 1L);
+        verify(doctorVisitIndex, times(1)).book(1L, updatedVisit.getStartDate(), updatedVisit.getEndDate());
+        verifyNoMoreInteractions(visitRepository, patientRepository);
+        verifyNoInteractions(doctorRepository);
+    }
+
+    @Test
+    void assign_VisitHeldByAnotherPatient_VisitAlreadyTakenExceptionThrown() {
+        // given
+        Long visitId = 1L;
+        Long patientId = 1L;
+        when(visitHoldRegistry.isHeldByOther(visitId, patientId)).thenReturn(true);
+        // when & then
+        VisitAlreadyTakenException exception = assertThrows(VisitAlreadyTakenException.class, () -> visitService.assign(visitId, patientId));
+        assertEquals("Ten termin wizyty jest tymczasowo zarezerwowany przez innego pacjenta", exception.getMessage());
+        verifyNoInteractions(visitRepository, patientRepository);
+    }
+
+    @Test
+    void hold_VisitFreeAndPatientFound_HoldReturned() {
+        // given
+        Long visitId = 1L;
+        Long patientId = 2L;
+        Visit visit = createVisit();
+        LocalDateTime expiresAt = LocalDateTime.now(currentDate).plusMinutes(5);
+        when(visitRepository.findById(visitId)).thenReturn(Optional.of(visit));
+        when(patientRepository.existsById(patientId)).thenReturn(true);
+        when(visitHoldRegistry.hold(visitId, patientId)).thenReturn(new VisitHold(visitId, patientId, expiresAt, 300));
+        // when
+        VisitHoldDto result = visitService.hold(visitId, patientId);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(1L, result.visitId()),
+                () -> assertEquals(2L, result.patientId()),
+                () -> assertEquals(expiresAt, result.expiresAt())
+        );
+        verify(visitHoldRegistry, times(1)).hold(1L, 2L);
+        verify(visitRepository, never()).assignPatientIfFree(anyLong(), any());
+    }
+
+    @Test
+    void hold_VisitAlreadyTaken_VisitAlreadyTakenExceptionThrown() {
+        // given
+        Long visitId = 1L;
+        Long patientId = 2L;
+        Visit visit = createVisit();
+        visit.setPatient(createPatient());
+        when(visitRepository.findById(visitId)).thenReturn(Optional.of(visit));
+        when(patientRepository.existsById(patientId)).thenReturn(true);
+        // when & then
+        VisitAlreadyTakenException exception = assertThrows(VisitAlreadyTakenException.class, () -> visitService.hold(visitId, patientId));
+        assertEquals("Ten termin wizyty jest już zajęty", exception.getMessage());
+        verify(visitHoldRegistry, never()).hold(anyLong(), anyLong());
+    }
+
+    @Test
+    void assign_VisitTakenInTheMeantime_VisitAlreadyTakenExceptionThrown() {
+        // given
+        Long visitId = 1L;
+        Long patientId = 1L;
+        Visit visit = createVisit();
+        Patient patient = createPatient();
+        when(visitRepository.findById(visitId)).thenReturn(Optional.of(visit));
+        when(patientRepository.findById(patientId)).thenReturn(Optional.of(patient));
+        when(visitRepository.assignPatientIfFree(visitId, patient)).thenReturn(0);
+        // when & then
+        VisitAlreadyTakenException exception = assertThrows(VisitAlreadyTakenException.class, () -> visitService.assign(visitId, patientId));
+        assertEquals("Ten termin wizyty jest już zajęty", exception.getMessage());
+        verify(visitRepository, times(1)).findById(1L);
+        verify(patientRepository, times(1)).findById(1L);
+        verify(visitRepository, times(1)).assignPatientIfFree(1L, patient);
         verifyNoMoreInteractions(visitRepository, patientRepository);
         verifyNoInteractions(doctorRepository);
     }
@@ -296,6 +633,7 @@ public class VisitServiceTest {
         CreateDoctorCommand createDoctorCommand = makeCreateDoctorCommand();
         Doctor doctor = doctorMapper.toEntity(createDoctorCommand);
         doctor.setId(1L);
+        doctor.setVisits(new ArrayList<>());
         return doctor;
     }
 }
@@ -0,0 +1,178 @@
+package com.dname074.medicalclinic.service;
+
+import com.dname074.medicalclinic.dto.WaitlistEntryDto;
+import com.dname074.medicalclinic.dto.command.CreateWaitlistEntryCommand;
+import com.dname074.medicalclinic.exception.doctor.DoctorNotFoundException;
+import com.dname074.medicalclinic.exception.waitlist.InvalidWaitlistEntryException;
+import com.dname074.medicalclinic.exception.waitlist.WaitlistEntryExistsException;
+import com.dname074.medicalclinic.exception.waitlist.WaitlistEntryNotFoundException;
+import com.dname074.medicalclinic.mapper.WaitlistMapper;
+import com.dname074.medicalclinic.model.Doctor;
+import com.dname074.medicalclinic.model.Patient;
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.model.WaitlistEntry;
+import com.dname074.medicalclinic.repository.DoctorRepository;
+import com.dname074.medicalclinic.repository.PatientRepository;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
+import com.dname074.medicalclinic.waitlist.WaitlistQueue;
+import com.dname074.medicalclinic.waitlist.WaitlistTicket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class WaitlistServiceTest {
+    WaitlistEntryRepository waitlistEntryRepository;
+    PatientRepository patientRepository;
+    DoctorRepository doctorRepository;
+    WaitlistMapper waitlistMapper;
+    WaitlistQueue waitlistQueue;
+    WaitlistService waitlistService;
+    Clock clock = Clock.fixed(
+            LocalDateTime.of(2026, 2, 15, 12, 0, 0)
+                    .atZone(ZoneId.systemDefault())
+                    .toInstant(),
+            ZoneId.systemDefault()
+    );
+
+    @BeforeEach
+    void setup() {
+        this.waitlistEntryRepository = Mockito.mock(WaitlistEntryRepository.class);
+        this.patientRepository = Mockito.mock(PatientRepository.class);
+        this.doctorRepository = Mockito.mock(DoctorRepository.class);
+        this.waitlistMapper = Mappers.getMapper(WaitlistMapper.class);
+        this.waitlistQueue = Mockito.mock(WaitlistQueue.class);
+        this.waitlistService = new WaitlistService(waitlistEntryRepository, patientRepository, doctorRepository,
+                waitlistMapper, waitlistQueue, clock);
+    }
+
+    @Test
+    void addEntry_DoctorAndPatientFound_EntrySavedAndQueued() {
+        // given
+        CreateWaitlistEntryCommand createWaitlistEntryCommand = new CreateWaitlistEntryCommand(1L, 2L, null, 3);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(createPatient()));
+        when(doctorRepository.findById(2L)).thenReturn(Optional.of(createDoctor()));
+        when(waitlistEntryRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            WaitlistEntry entry = invocation.getArgument(0);
+            entry.setId(5L);
+            return entry;
+        });
+        // when
+        WaitlistEntryDto result = waitlistService.addEntry(createWaitlistEntryCommand);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(5L, result.id()),
+                () -> assertEquals(1L, result.patientId()),
+                () -> assertEquals(2L, result.doctorId()),
+                () -> assertNull(result.specialization()),
+                () -> assertEquals(3, result.priority()),
+                () -> assertEquals(LocalDateTime.of(2026, 2, 15, 12, 0), result.createdAt())
+        );
+        verify(waitlistQueue, times(1)).addAfterCommit(new WaitlistTicket(5L, 1L, 2L, null, 3));
+    }
+
+    @Test
+    void addEntry_DoctorAndSpecializationGiven_InvalidWaitlistEntryExceptionThrown() {
+        // given
+        CreateWaitlistEntryCommand createWaitlistEntryCommand = new CreateWaitlistEntryCommand(1L, 2L, Specialization.SURGEON, 0);
+        // when & then
+        InvalidWaitlistEntryException exception = assertThrows(InvalidWaitlistEntryException.class,
+                () -> waitlistService.addEntry(createWaitlistEntryCommand));
+        assertEquals("Wpis na liście oczekujących musi wskazywać doktora albo specjalizację", exception.getMessage());
+        verifyNoInteractions(patientRepository, doctorRepository, waitlistEntryRepository, waitlistQueue);
+    }
+
+    @Test
+    void addEntry_PatientAlreadyWaiting_WaitlistEntryExistsExceptionThrown() {
+        // given
+        CreateWaitlistEntryCommand createWaitlistEntryCommand = new CreateWaitlistEntryCommand(1L, null, Specialization.SURGEON, 0);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(createPatient()));
+        when(waitlistEntryRepository.existsByPatientId(1L)).thenReturn(true);
+        // when & then
+        WaitlistEntryExistsException exception = assertThrows(WaitlistEntryExistsException.class,
+                () -> waitlistService.addEntry(createWaitlistEntryCommand));
+        assertEquals("Pacjent oczekuje już na wizytę", exception.getMessage());
+        verifyNoInteractions(waitlistQueue);
+    }
+
+    @Test
+    void addEntry_PatientAddedInTheMeantime_WaitlistEntryExistsExceptionThrown() {
+        // given
+        CreateWaitlistEntryCommand createWaitlistEntryCommand = new CreateWaitlistEntryCommand(1L, null, Specialization.SURGEON, 0);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(createPatient()));
+        when(waitlistEntryRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("uk_waitlist_entries_patient_id"));
+        // when & then
+        assertThrows(WaitlistEntryExistsException.class, () -> waitlistService.addEntry(createWaitlistEntryCommand));
+        verifyNoInteractions(waitlistQueue);
+    }
+
+    @Test
+    void addEntry_DoctorNotFound_DoctorNotFoundExceptionThrown() {
+        // given
+        CreateWaitlistEntryCommand createWaitlistEntryCommand = new CreateWaitlistEntryCommand(1L, 2L, null, 0);
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(createPatient()));
+        when(doctorRepository.findById(2L)).thenReturn(Optional.empty());
+        // when & then
+        DoctorNotFoundException exception = assertThrows(DoctorNotFoundException.class,
+                () -> waitlistService.addEntry(createWaitlistEntryCommand));
+        assertEquals("Nie znaleziono doktora o podanym id", exception.getMessage());
+        verifyNoInteractions(waitlistQueue);
+    }
+
+    @Test
+    void deleteEntryById_EntryFound_EntryDeletedAndRemovedFromQueue() {
+        // given
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setId(5L);
+        entry.setPatient(createPatient());
+        entry.setSpecialization(Specialization.SURGEON);
+        entry.setPriority(1);
+        when(waitlistEntryRepository.findById(5L)).thenReturn(Optional.of(entry));
+        // when
+        WaitlistEntryDto result = waitlistService.deleteEntryById(5L);
+        // then
+        assertEquals(5L, result.id());
+        verify(waitlistEntryRepository, times(1)).delete(entry);
+        verify(waitlistQueue, times(1)).removeAfterCommit(new WaitlistTicket(5L, 1L, null, Specialization.SURGEON, 1));
+    }
+
+    @Test
+    void deleteEntryById_EntryNotFound_WaitlistEntryNotFoundExceptionThrown() {
+        // given
+        when(waitlistEntryRepository.findById(5L)).thenReturn(Optional.empty());
+        // when & then
+        WaitlistEntryNotFoundException exception = assertThrows(WaitlistEntryNotFoundException.class,
+                () -> waitlistService.deleteEntryById(5L));
+        assertEquals("Nie znaleziono wpisu na liście oczekujących o podanym id", exception.getMessage());
+        verifyNoInteractions(waitlistQueue);
+    }
+
+    private Patient createPatient() {
+        Patient patient = new Patient();
+        patient.setId(1L);
+        return patient;
+    }
+
+    private Doctor createDoctor() {
+        Doctor doctor = new Doctor();
+        doctor.setId(2L);
+        doctor.setSpecialization(Specialization.CARDIOLOGIST);
+        return doctor;
+    }
+}
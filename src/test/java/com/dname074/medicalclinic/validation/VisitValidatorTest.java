@@ -1,7 +1,8 @@
 package com.dname074.medicalclinic.validation;
 
+import com.dname074.medicalclinic.dto.command.CreateScheduleCommand;
 import com.dname074.medicalclinic.exception.visit.InvalidVisitException;
-import com.dname074.medicalclinic.repository.VisitRepository;
+import com.dname074.medicalclinic.index.DoctorVisitIndex;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,8 +10,12 @@ import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 
 import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
+import java.util.Set;
 
 import static java.util.Objects.nonNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -19,7 +24,7 @@ import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 public class VisitValidatorTest {
-    VisitRepository visitRepository;
+    DoctorVisitIndex doctorVisitIndex;
     VisitValidator validator;
     Clock clock = Clock.fixed(
             LocalDateTime.of(2026, 2, 15, 12, 0, 0)
@@ -30,8 +35,8 @@ public class VisitValidatorTest {
 
     @BeforeEach
     void setup() {
-        this.visitRepository = Mockito.mock(VisitRepository.class);
-        this.validator = new VisitValidator(this.visitRepository, this.clock);
+        this.doctorVisitIndex = Mockito.mock(DoctorVisitIndex.class);
+        this.validator = new VisitValidator(this.doctorVisitIndex, this.clock);
     }
 
     @Test
@@ -39,15 +44,16 @@ public class VisitValidatorTest {
         // given
         LocalDateTime startDate = LocalDateTime.of(2026, 12, 1, 15, 30, 0);
         LocalDateTime endDate = LocalDateTime.of(2026, 12, 1, 16, 30, 0);
-        when(visitRepository.existsByStartDateLessThanAndEndDateGreaterThan(endDate, startDate)).thenReturn(false);
+        when(doctorVisitIndex.isFree(1L, startDate, endDate)).thenReturn(true);
         // when
-        validator.validateVisitDate(startDate, endDate);
+        validator.validateVisitDate(1L, startDate, endDate);
         // then
-        verify(visitRepository, times(1)).existsByStartDateLessThanAndEndDateGreaterThan(
-                argThat(new LocalDateTimeArgumentMatcher(LocalDateTime.of(2026, 12, 1, 16, 30, 0))),
-                argThat(new LocalDateTimeArgumentMatcher(LocalDateTime.of(2026, 12, 1, 15, 30, 0)))
+        verify(doctorVisitIndex, times(1)).isFree(
+                eq(1L),
+                argThat(new LocalDateTimeArgumentMatcher(LocalDateTime.of(2026, 12, 1, 15, 30, 0))),
+                argThat(new LocalDateTimeArgumentMatcher(LocalDateTime.of(2026, 12, 1, 16, 30, 0)))
         );
-        verifyNoMoreInteractions(visitRepository);
+        verifyNoMoreInteractions(doctorVisitIndex);
     }
 
     @Test
@@ -56,9 +62,9 @@ public class VisitValidatorTest {
         LocalDateTime startDate = LocalDateTime.of(2026, 12, 1, 16, 30, 0);
         LocalDateTime endDate = LocalDateTime.of(2026, 12, 1, 15, 30, 0);
         // when & then
-        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(startDate, endDate));
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(1L, startDate, endDate));
         assertEquals("Data początkowa wizyty nie może być po dacie końcowej", exception.getMessage());
-        verifyNoInteractions(visitRepository);
+        verifyNoInteractions(doctorVisitIndex);
     }
 
     @Test
@@ -67,9 +73,9 @@ public class VisitValidatorTest {
         LocalDateTime startDate = LocalDateTime.of(2026, 12, 1, 15, 30, 0);
         LocalDateTime endDate = LocalDateTime.of(2026, 12, 1, 15, 30, 0);
         // when & then
-        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(startDate, endDate));
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(1L, startDate, endDate));
         assertEquals("Data początkowa wizyty nie może być taka sama jak data końcowa", exception.getMessage());
-        verifyNoInteractions(visitRepository);
+        verifyNoInteractions(doctorVisitIndex);
     }
 
     @Test
@@ -78,9 +84,9 @@ public class VisitValidatorTest {
         LocalDateTime startDate = LocalDateTime.of(2026, 12, 1, 15, 32, 0);
         LocalDateTime endDate = LocalDateTime.of(2026, 12, 1, 16, 41, 0);
         // when & then
-        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(startDate, endDate));
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(1L, startDate, endDate));
         assertEquals("Godziny wizyt muszą być w pełnym kwadransie godziny", exception.getMessage());
-        verifyNoInteractions(visitRepository);
+        verifyNoInteractions(doctorVisitIndex);
     }
 
     @Test
@@ -89,9 +95,31 @@ public class VisitValidatorTest {
         LocalDateTime startDate = LocalDateTime.of(2026, 1, 1, 15, 30, 0);
         LocalDateTime endDate = LocalDateTime.of(2026, 1, 1, 16, 30, 0);
         // when & then
-        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(startDate, endDate));
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(1L, startDate, endDate));
         assertEquals("Data wizyty nie może poprzedzać aktualnej daty", exception.getMessage());
-        verifyNoInteractions(visitRepository);
+        verifyNoInteractions(doctorVisitIndex);
+    }
+
+    @Test
+    void validateVisitDate_VisitLongerThanDay_InvalidVisitExceptionThrown() {
+        // given
+        LocalDateTime startDate = LocalDateTime.of(2026, 12, 1, 14, 30, 0);
+        LocalDateTime endDate = LocalDateTime.of(2027, 12, 1, 14, 30, 0);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(1L, startDate, endDate));
+        assertEquals("Wizyta nie może trwać dłużej niż 24 godziny", exception.getMessage());
+        verifyNoInteractions(doctorVisitIndex);
+    }
+
+    @Test
+    void validateVisitDate_DateBeyondBookingHorizon_InvalidVisitExceptionThrown() {
+        // given
+        LocalDateTime startDate = LocalDateTime.of(9999, 12, 1, 14, 30, 0);
+        LocalDateTime endDate = LocalDateTime.of(9999, 12, 1, 15, 30, 0);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(1L, startDate, endDate));
+        assertEquals("Wizytę można dodać najwyżej 731 dni naprzód", exception.getMessage());
+        verifyNoInteractions(doctorVisitIndex);
     }
 
     @Test
@@ -99,12 +127,100 @@ public class VisitValidatorTest {
         // given
         LocalDateTime startDate = LocalDateTime.of(2026, 12, 1, 14, 30, 0);
         LocalDateTime endDate = LocalDateTime.of(2026, 12, 1, 15, 30, 0);
-        when(visitRepository.existsByStartDateLessThanAndEndDateGreaterThan(endDate, startDate)).thenReturn(true);
+        when(doctorVisitIndex.isFree(1L, startDate, endDate)).thenReturn(false);
         // when & then
-        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(startDate, endDate));
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateVisitDate(1L, startDate, endDate));
         assertEquals("Data wizyty pokrywa się z już istniejącą", exception.getMessage());
-        verify(visitRepository, times(1)).existsByStartDateLessThanAndEndDateGreaterThan(endDate, startDate);
-        verifyNoMoreInteractions(visitRepository);
+        verify(doctorVisitIndex, times(1)).isFree(1L, startDate, endDate);
+        verifyNoMoreInteractions(doctorVisitIndex);
+    }
+
+    @Test
+    void validateSchedule_ScheduleCorrect_ContinueWithoutException() {
+        // given
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 5, 31),
+                Set.of(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), LocalTime.of(8, 0), LocalTime.of(16, 0), 15);
+        // when
+        validator.validateSchedule(createScheduleCommand);
+        // then
+        verifyNoInteractions(doctorVisitIndex);
+    }
+
+    @Test
+    void validateSchedule_StartTimeAfterEndTime_InvalidVisitExceptionThrown() {
+        // given
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31),
+                Set.of(DayOfWeek.MONDAY), LocalTime.of(16, 0), LocalTime.of(8, 0), 15);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateSchedule(createScheduleCommand));
+        assertEquals("Godzina rozpoczęcia przyjęć musi poprzedzać godzinę ich zakończenia", exception.getMessage());
+    }
+
+    @Test
+    void validateSchedule_VisitLengthNotInFullQuarterOfAnHour_InvalidVisitExceptionThrown() {
+        // given
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31),
+                Set.of(DayOfWeek.MONDAY), LocalTime.of(8, 0), LocalTime.of(16, 0), 20);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateSchedule(createScheduleCommand));
+        assertEquals("Godziny wizyt muszą być w pełnym kwadransie godziny", exception.getMessage());
+    }
+
+    @Test
+    void validateSchedule_TooManyVisits_InvalidVisitExceptionThrown() {
+        // given
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(2026, 3, 1), LocalDate.of(2027, 3, 1),
+                Set.of(DayOfWeek.values()), LocalTime.of(0, 0), LocalTime.of(23, 45), 15);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateSchedule(createScheduleCommand));
+        assertEquals("Harmonogram nie może zawierać więcej niż 10000 wizyt", exception.getMessage());
+    }
+
+    @Test
+    void validateSchedule_RangeTooLong_InvalidVisitExceptionThrown() {
+        // given
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(2026, 3, 1), LocalDate.of(9999, 12, 31),
+                Set.of(DayOfWeek.MONDAY), LocalTime.of(8, 0), LocalTime.of(9, 0), 60);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateSchedule(createScheduleCommand));
+        assertEquals("Harmonogram nie może obejmować więcej niż 366 dni", exception.getMessage());
+    }
+
+    @Test
+    void validateSchedule_EndDateBeyondBookingHorizon_InvalidVisitExceptionThrown() {
+        // given
+        CreateScheduleCommand createScheduleCommand = new CreateScheduleCommand(LocalDate.of(9999, 3, 1), LocalDate.of(9999, 3, 31),
+                Set.of(DayOfWeek.MONDAY), LocalTime.of(8, 0), LocalTime.of(9, 0), 60);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateSchedule(createScheduleCommand));
+        assertEquals("Wizytę można dodać najwyżej 731 dni naprzód", exception.getMessage());
+    }
+
+    @Test
+    void validateSearchRange_FromAfterTo_InvalidVisitExceptionThrown() {
+        // given
+        LocalDateTime from = LocalDateTime.of(2026, 3, 9, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 3, 2, 0, 0, 0);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateSearchRange(from, to));
+        assertEquals("Data początkowa wyszukiwania musi poprzedzać datę końcową", exception.getMessage());
+    }
+
+    @Test
+    void validateSearchRange_RangeTooLong_InvalidVisitExceptionThrown() {
+        // given
+        LocalDateTime from = LocalDateTime.of(2026, 3, 1, 0, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 5, 1, 0, 0, 0);
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateSearchRange(from, to));
+        assertEquals("Zakres wyszukiwania nie może przekraczać 31 dni", exception.getMessage());
+    }
+
+    @Test
+    void validateSlotLength_LengthNotInFullQuarterOfAnHour_InvalidVisitExceptionThrown() {
+        // when & then
+        InvalidVisitException exception = assertThrows(InvalidVisitException.class, () -> validator.validateSlotLength(20));
+        assertEquals("Długość wizyty musi być dodatnią wielokrotnością kwadransa", exception.getMessage());
     }
 
     @RequiredArgsConstructor
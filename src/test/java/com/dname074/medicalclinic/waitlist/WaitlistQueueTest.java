@@ -0,0 +1,92 @@
+package com.dname074.medicalclinic.waitlist;
+
+import com.dname074.medicalclinic.model.Specialization;
+import com.dname074.medicalclinic.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WaitlistQueueTest {
+    WaitlistEntryRepository waitlistEntryRepository;
+    WaitlistQueue waitlistQueue;
+
+    @BeforeEach
+    void setup() {
+        this.waitlistEntryRepository = Mockito.mock(WaitlistEntryRepository.class);
+        this.waitlistQueue = new WaitlistQueue(waitlistEntryRepository);
+    }
+
+    @Test
+    void load_EntriesFound_QueuesFilled() {
+        // given
+        when(waitlistEntryRepository.findAllTickets()).thenReturn(List.of(
+                new WaitlistTicket(1L, 1L, 1L, null, 0),
+                new WaitlistTicket(2L, 2L, null, Specialization.SURGEON, 0)
+        ));
+        // when
+        waitlistQueue.load();
+        // then
+        assertEquals(2, waitlistQueue.size());
+        verify(waitlistEntryRepository, times(1)).findAllTickets();
+    }
+
+    @Test
+    void poll_EntriesWithDifferentPriorities_HigherPriorityThenOlderEntryReturned() {
+        // given
+        waitlistQueue.addAfterCommit(new WaitlistTicket(1L, 1L, 1L, null, 0));
+        waitlistQueue.addAfterCommit(new WaitlistTicket(2L, 2L, 1L, null, 5));
+        waitlistQueue.addAfterCommit(new WaitlistTicket(3L, 3L, 1L, null, 5));
+        // when
+        Optional<WaitlistTicket> first = waitlistQueue.poll(1L, Specialization.SURGEON);
+        Optional<WaitlistTicket> second = waitlistQueue.poll(1L, Specialization.SURGEON);
+        Optional<WaitlistTicket> third = waitlistQueue.poll(1L, Specialization.SURGEON);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(2L, first.orElseThrow().id()),
+                () -> assertEquals(3L, second.orElseThrow().id()),
+                () -> assertEquals(1L, third.orElseThrow().id()),
+                () -> assertTrue(waitlistQueue.poll(1L, Specialization.SURGEON).isEmpty())
+        );
+    }
+
+    @Test
+    void poll_DoctorAndSpecializationEntries_BetterOfBothHeadsReturned() {
+        // given
+        waitlistQueue.addAfterCommit(new WaitlistTicket(1L, 1L, 1L, null, 0));
+        waitlistQueue.addAfterCommit(new WaitlistTicket(2L, 2L, null, Specialization.SURGEON, 2));
+        waitlistQueue.addAfterCommit(new WaitlistTicket(3L, 3L, 2L, null, 9));
+        waitlistQueue.addAfterCommit(new WaitlistTicket(4L, 4L, null, Specialization.CARDIOLOGIST, 9));
+        // when
+        Optional<WaitlistTicket> first = waitlistQueue.poll(1L, Specialization.SURGEON);
+        Optional<WaitlistTicket> second = waitlistQueue.poll(1L, Specialization.SURGEON);
+        // then
+        Assertions.assertAll(
+                () -> assertEquals(2L, first.orElseThrow().id()),
+                () -> assertEquals(1L, second.orElseThrow().id()),
+                () -> assertTrue(waitlistQueue.poll(1L, Specialization.SURGEON).isEmpty()),
+                () -> assertEquals(2, waitlistQueue.size())
+        );
+    }
+
+    @Test
+    void removeAfterCommit_EntryQueued_EntryNotReturnedByPoll() {
+        // given
+        WaitlistTicket ticket = new WaitlistTicket(1L, 1L, null, Specialization.SURGEON, 0);
+        waitlistQueue.addAfterCommit(ticket);
+        // when
+        waitlistQueue.removeAfterCommit(ticket);
+        // then
+        assertTrue(waitlistQueue.poll(1L, Specialization.SURGEON).isEmpty());
+        assertEquals(0, waitlistQueue.size());
+    }
+}